@@ -0,0 +1,33 @@
+package model;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Running benchmarks with the GC profiler, which reports allocation rates
+ *
+ * Usual JMH options are accepted, e.g. -p n=1000 or -rf json.
+ *
+ * @author tadaki
+ */
+public class BenchmarkMain {
+
+    /**
+     * @param args JMH command line options
+     * @throws RunnerException
+     * @throws CommandLineOptionException
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Instances for benchmarks
+ *
+ * @author tadaki
+ */
+public class Cities {
+
+    //side of the square containing cities
+    public static final int SIDE = 1000000;
+    private static final int NUM_CLUSTER = 20;
+
+    private Cities() {
+    }
+
+    /**
+     * Generating cities
+     *
+     * @param shape "uniform" or "clustered"
+     * @param n the number of cities
+     * @param seed
+     * @return
+     */
+    public static List<Point> generate(String shape, int n, long seed) {
+        Random random = new Random(seed);
+        List<Point> list = Collections.synchronizedList(new ArrayList<>(n));
+        switch (shape) {
+            case "uniform":
+                for (int i = 0; i < n; i++) {
+                    list.add(new Point(random.nextInt(SIDE), random.nextInt(SIDE)));
+                }
+                break;
+            case "clustered":
+                double cx[] = new double[NUM_CLUSTER];
+                double cy[] = new double[NUM_CLUSTER];
+                for (int c = 0; c < NUM_CLUSTER; c++) {
+                    cx[c] = random.nextDouble() * SIDE;
+                    cy[c] = random.nextDouble() * SIDE;
+                }
+                double sigma = SIDE / 50.;
+                for (int i = 0; i < n; i++) {
+                    int c = random.nextInt(NUM_CLUSTER);
+                    int x = (int) (cx[c] + sigma * random.nextGaussian());
+                    int y = (int) (cy[c] + sigma * random.nextGaussian());
+                    list.add(new Point(Math.floorMod(x, SIDE), Math.floorMod(y, SIDE)));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown shape " + shape);
+        }
+        return list;
+    }
+}
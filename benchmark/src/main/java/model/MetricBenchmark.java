@@ -0,0 +1,178 @@
+package model;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of distances under each metric
+ *
+ * Pairs of cities are drawn beforehand, so that only the evaluation of the
+ * 2-opt difference is measured. For GEO, coordinates are mapped to degrees.
+ * Each trial runs in its own fork, where only one provider reaches the call
+ * in Tour. The Euclidean path is also measured after every provider has
+ * passed through that call in the same JVM, and against DirectDistance
+ * called without Tour.
+ *
+ * @author tadaki
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricBenchmark {
+
+    private static final int NUM_PAIR = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class Pairs {
+
+        @Param({"1000", "100000"})
+        public int n;
+        @Param({"EUCLIDEAN", "EUC_2D", "CEIL_2D", "ATT", "MAN_2D", "GEO"})
+        public String metric;
+
+        Tour tour;
+        int a[];
+        int b[];
+        int index = 0;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            tour = create(n, Metric.valueOf(metric));
+            a = new int[NUM_PAIR];
+            b = new int[NUM_PAIR];
+            drawPairs(n, a, b);
+        }
+
+        int nextIndex() {
+            index = (index + 1) & (NUM_PAIR - 1);
+            return index;
+        }
+    }
+
+    /**
+     * Euclidean circuit measured after all providers have been used
+     */
+    @State(Scope.Thread)
+    public static class Mixed {
+
+        @Param({"1000", "100000"})
+        public int n;
+
+        Tour tour;
+        DirectDistance direct;
+        int a[];
+        int b[];
+        int index = 0;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            a = new int[NUM_PAIR];
+            b = new int[NUM_PAIR];
+            drawPairs(n, a, b);
+            //every provider through Tour.distance until it is compiled
+            double sum = 0.;
+            for (Metric m : Metric.values()) {
+                if (m == Metric.EXPLICIT) {
+                    continue;
+                }
+                Tour t = create(n, m);
+                for (int k = 0; k < 20; k++) {
+                    for (int i = 0; i < NUM_PAIR; i++) {
+                        sum += t.deltaTwoOpt(a[i], b[i]);
+                    }
+                }
+            }
+            if (Double.isNaN(sum)) {
+                throw new IllegalStateException();
+            }
+            tour = create(n, Metric.EUCLIDEAN);
+            List<Point> points = Cities.generate("uniform", n, 48L);
+            double x[] = new double[n];
+            double y[] = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = points.get(i).x;
+                y[i] = points.get(i).y;
+            }
+            direct = new DirectDistance(x, y);
+        }
+
+        int nextIndex() {
+            index = (index + 1) & (NUM_PAIR - 1);
+            return index;
+        }
+    }
+
+    static Tour create(int n, Metric m) {
+        List<Point> points = Cities.generate("uniform", n, 48L);
+        double x[] = new double[n];
+        double y[] = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = points.get(i).x;
+            y[i] = points.get(i).y;
+            if (m == Metric.GEO) {
+                x[i] = x[i] * 90. / Cities.SIDE;
+                y[i] = y[i] * 180. / Cities.SIDE;
+            }
+        }
+        return Tour.create(x, y, MetricDistance.of(x, y, m));
+    }
+
+    static void drawPairs(int n, int a[], int b[]) {
+        Random random = new Random(48L);
+        for (int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(n);
+            do {
+                b[i] = random.nextInt(n);
+            } while (b[i] == a[i]);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double deltaTwoOpt(Pairs state) {
+        int i = state.nextIndex();
+        return state.tour.deltaTwoOpt(state.a[i], state.b[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double deltaTwoOptMixed(Mixed state) {
+        int i = state.nextIndex();
+        return state.tour.deltaTwoOpt(state.a[i], state.b[i]);
+    }
+
+    /**
+     * The same four distances with DirectDistance called directly
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double directDistance(Mixed state) {
+        int i = state.nextIndex();
+        int a = state.a[i];
+        int b = state.b[i];
+        Tour tour = state.tour;
+        int na = tour.next(a);
+        int nb = tour.next(b);
+        if (na == b || nb == a) {
+            return 0.;
+        }
+        DirectDistance d = state.direct;
+        return d.distance(a, b) + d.distance(na, nb)
+                - d.distance(a, na) - d.distance(b, nb);
+    }
+}
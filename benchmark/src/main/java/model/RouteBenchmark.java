@@ -0,0 +1,55 @@
+package model;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the list-based Route
+ *
+ * @author tadaki
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteBenchmark {
+
+    @Param({"25", "1000", "100000", "1000000"})
+    public int n;
+    @Param({"uniform", "clustered"})
+    public String shape;
+
+    private Route route;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Point> list = Cities.generate(shape, n, 48L);
+        route = new Route(list, new Xoroshiro128(48L));
+        route.evalPathLength();
+    }
+
+    @Benchmark
+    public Route nextRoute() {
+        return route.nextRoute();
+    }
+
+    @Benchmark
+    public double evalPathLength() {
+        return route.evalPathLength();
+    }
+}
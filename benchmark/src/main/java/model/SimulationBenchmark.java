@@ -0,0 +1,102 @@
+package model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of one trial and one Monte Carlo step
+ *
+ * The temperature is set to the typical edge length, where both accepted
+ * and rejected trials occur.
+ *
+ * @author tadaki
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Flip {
+
+        @Param({"25", "1000", "100000", "1000000"})
+        public int n;
+        @Param({"uniform", "clustered"})
+        public String shape;
+        @Param({"UNIFORM", "NEIGHBOUR"})
+        public String proposal;
+        @Param({"xoroshiro", "random"})
+        public String generator;
+
+        Simulation sim;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            sim = create(n, shape, proposal, generator);
+        }
+    }
+
+    /**
+     * Monte Carlo steps take n trials each, so large n are left to -p n=...
+     */
+    @State(Scope.Thread)
+    public static class Sweep {
+
+        @Param({"25", "1000", "100000"})
+        public int n;
+        @Param({"uniform", "clustered"})
+        public String shape;
+        @Param({"UNIFORM", "NEIGHBOUR"})
+        public String proposal;
+
+        Simulation sim;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            sim = create(n, shape, proposal, "xoroshiro");
+        }
+    }
+
+    static Simulation create(int n, String shape, String proposal,
+            String generator) {
+        RandomGenerator random = generator.equals("random")
+                ? new Random(48L) : new Xoroshiro128(48L);
+        Simulation sim = new Simulation(Cities.generate(shape, n, 48L), random);
+        sim.setProposal(Simulation.Proposal.valueOf(proposal));
+        //typical edge length of a good tour
+        sim.setTemperature(Cities.SIDE / Math.sqrt(n));
+        return sim;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean oneFlip(Flip state) {
+        return state.sim.oneFlip();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double oneMonteCarloStep(Sweep state) {
+        return state.sim.oneMonteCarloStep();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double evalPathLength(Flip state) {
+        return state.sim.getTour().evalPathLength();
+    }
+}
@@ -0,0 +1,65 @@
+package model;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of construction heuristics for the initial circuit
+ *
+ * Neighbour lists and distances are prepared beforehand.
+ *
+ * @author tadaki
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TourBuilderBenchmark {
+
+    @State(Scope.Thread)
+    public static class Input {
+
+        @Param({"10000", "100000"})
+        public int n;
+        @Param({"uniform", "clustered"})
+        public String shape;
+        @Param({"nearest", "greedy", "hilbert", "christofides"})
+        public String builder;
+
+        Instance instance;
+        NeighbourList neighbours;
+        DistanceProvider dist;
+        TourBuilder tourBuilder;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            List<Point> points = Cities.generate(shape, n, 48L);
+            instance = Instance.fromPoints(points);
+            neighbours = new NeighbourList(instance.getX(), instance.getY(),
+                    Simulation.NUM_NEIGHBOUR);
+            dist = DistanceProvider.select(instance, neighbours,
+                    DistanceProvider.DEFAULT_MEMORY_BUDGET);
+            tourBuilder = BatchRunner.builder(builder);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] build(Input state) {
+        return state.tourBuilder.build(state.instance, state.neighbours,
+                state.dist);
+    }
+}
@@ -0,0 +1,191 @@
+package exercise;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Many independent walkers of the simple Monte Carlo method
+ *
+ * States of walkers are held in one int array and visits are accumulated in
+ * one histogram, so that a call advances thousands of walkers without
+ * objects per walker. Each step proposes a state other than the current one
+ * uniformly and accepts it by the Metropolis rule. Boltzmann weights of
+ * states are tabulated when temperature is set, so that a trial compares
+ * u*w(current) with w(proposed) instead of evaluating exp.
+ *
+ * @author tadaki
+ */
+public class MultiWalkerMC {
+
+    private final double energy[];//energy of each state
+    private final int numState;//the number of states
+    private final int state[];//current state of each walker
+    private final long count[];//histogram of visited states
+    private final double boltzmann[];//exp(-(E-Emin)/T) for each state
+    private final double minEnergy;
+    private final RandomGenerator random;//not shared between threads
+    private double temperature = 1.;
+
+    /**
+     * @param energy energy of each state
+     * @param numWalker the number of walkers
+     * @param random
+     */
+    public MultiWalkerMC(double energy[], int numWalker, RandomGenerator random) {
+        if (energy.length < 2) {
+            throw new IllegalArgumentException("at least two states are needed");
+        }
+        this.energy = energy;
+        this.random = random;
+        numState = energy.length;
+        state = new int[numWalker];
+        count = new long[numState];
+        boltzmann = new double[numState];
+        double m = energy[0];
+        for (double e : energy) {
+            m = Math.min(m, e);
+        }
+        minEnergy = m;
+        setTemperature(temperature);
+    }
+
+    /**
+     * Set temperature, placing walkers at random states and clearing the
+     * histogram
+     *
+     * @param temperature
+     */
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+        for (int i = 0; i < numState; i++) {
+            boltzmann[i] = Math.exp(-(energy[i] - minEnergy) / temperature);
+        }
+        for (int w = 0; w < state.length; w++) {
+            state[w] = random.nextInt(numState);
+        }
+        clear();
+    }
+
+    /**
+     * Clear the histogram
+     */
+    public void clear() {
+        Arrays.fill(count, 0L);
+    }
+
+    /**
+     * Advance all walkers without recording, for equilibration
+     *
+     * @param numStep the number of steps of each walker
+     */
+    public void advance(int numStep) {
+        run(numStep, false);
+    }
+
+    /**
+     * Advance all walkers, recording states after each step
+     *
+     * @param numStep the number of steps of each walker
+     */
+    public void sample(int numStep) {
+        run(numStep, true);
+    }
+
+    private void run(int numStep, boolean record) {
+        int numWalker = state.length;
+        for (int t = 0; t < numStep; t++) {
+            for (int w = 0; w < numWalker; w++) {
+                int current = state[w];
+                int s = random.nextInt(numState - 1);
+                if (s >= current) {
+                    s++;
+                }
+                if (energy[s] <= energy[current] || accept(random.nextDouble(), s, current)) {
+                    current = s;
+                    state[w] = s;
+                }
+                if (record) {
+                    count[current]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Uphill trial: u < exp(-(E(s)-E(c))/T)
+     *
+     * The weight of the current state can underflow only far above the
+     * lowest state, where exp is evaluated directly.
+     */
+    private boolean accept(double u, int s, int c) {
+        double wc = boltzmann[c];
+        if (wc > 0.) {
+            return u * wc < boltzmann[s];
+        }
+        return u < Math.exp(-(energy[s] - energy[c]) / temperature);
+    }
+
+    /**
+     * Histogram of visited states
+     *
+     * @return
+     */
+    public long[] getCount() {
+        return count;
+    }
+
+    /**
+     * Add the histogram to the given one
+     *
+     * @param total
+     */
+    public void mergeInto(long total[]) {
+        for (int i = 0; i < numState; i++) {
+            total[i] += count[i];
+        }
+    }
+
+    /**
+     * Frequencies of states
+     *
+     * @return
+     */
+    public double[] evalFreq() {
+        return evalFreq(count);
+    }
+
+    /**
+     * Frequencies from a histogram
+     *
+     * @param count
+     * @return
+     */
+    public static double[] evalFreq(long count[]) {
+        long sum = 0;
+        for (long c : count) {
+            sum += c;
+        }
+        double f[] = new double[count.length];
+        for (int i = 0; i < count.length; i++) {
+            f[i] = (double) count[i] / sum;
+        }
+        return f;
+    }
+
+    /**
+     * theoretical values for frequencies
+     *
+     * @return
+     */
+    public double[] expectation() {
+        return SimpleMC.expectation(energy, temperature);
+    }
+
+    public int getNumWalker() {
+        return state.length;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+}
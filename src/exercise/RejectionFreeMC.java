@@ -0,0 +1,275 @@
+package exercise;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rejection-free (n-fold way) version of the simple Monte Carlo method
+ *
+ * The dynamics is that of SimpleMC: a state other than the current one is
+ * proposed uniformly and accepted by the Metropolis rule. Instead of
+ * repeating rejected proposals, each event moves to a new state chosen in
+ * proportion to its acceptance probability, and the current state is
+ * credited with the expected number of steps spent there before leaving.
+ *
+ * States are sorted by energy when temperature is set. From a state of
+ * energy E, every state not higher than E is accepted with probability 1,
+ * and the probabilities to higher states are proportional to exp(-E'/T),
+ * whose suffix sums over the sorted states are kept. An event therefore
+ * takes O(log N) for N states.
+ *
+ * @author tadaki
+ */
+public class RejectionFreeMC {
+
+    private final double energy[];//energy of each state
+    private final int numState;//the number of states
+    private final int order[];//states in increasing order of energy
+    private final int position[];//position of each state in order
+    private final double sorted[];//energies in increasing order
+    private final int upper[];//first position higher than each position
+    private final double suffix[];//suffix sums of exp(-(E-Emin)/T) in order
+    private final double weight[];//expected steps spent in each state
+    private final RandomGenerator random;
+    private double temperature;//temperature
+    private int current;//current state
+    private double time = 0.;//the number of steps represented
+
+    /**
+     * @param energy energy of each state
+     * @param random
+     */
+    public RejectionFreeMC(double energy[], RandomGenerator random) {
+        numState = energy.length;
+        if (numState < 2) {
+            throw new IllegalArgumentException("at least two states are needed");
+        }
+        this.energy = energy;
+        this.random = random;
+        order = sortByEnergy(energy);
+        position = new int[numState];
+        sorted = new double[numState];
+        for (int i = 0; i < numState; i++) {
+            position[order[i]] = i;
+            sorted[i] = energy[order[i]];
+        }
+        upper = new int[numState];
+        for (int i = numState - 1; i >= 0; i--) {
+            upper[i] = (i == numState - 1 || sorted[i + 1] > sorted[i])
+                    ? i + 1 : upper[i + 1];
+        }
+        suffix = new double[numState + 1];
+        weight = new double[numState];
+        current = random.nextInt(numState);
+        temperature = Double.MAX_VALUE;
+        setTemperature(temperature);
+    }
+
+    /**
+     * Set temperature, recomputing weights of states and clearing the
+     * histogram
+     *
+     * @param temperature
+     */
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+        double beta = 1. / temperature;
+        suffix[numState] = 0.;
+        for (int i = numState - 1; i >= 0; i--) {
+            suffix[i] = suffix[i + 1] + Math.exp(-beta * (sorted[i] - sorted[0]));
+        }
+        clear();
+    }
+
+    /**
+     * Clear the histogram
+     */
+    public void clear() {
+        Arrays.fill(weight, 0.);
+        time = 0.;
+    }
+
+    /**
+     * One event: crediting the current state and moving to another state
+     *
+     * @return the expected number of steps spent in the state left
+     */
+    public double oneEvent() {
+        int p = position[current];
+        int hi = upper[p];
+        int numLower = hi - 1;//states accepted with probability 1
+        double up = 0.;//sum of acceptance probabilities to higher states
+        if (suffix[hi] > 0.) {
+            up = Math.exp(Math.log(suffix[hi])
+                    + (sorted[p] - sorted[0]) / temperature);
+        }
+        double rate = numLower + up;
+        if (rate <= 0.) {//no other state within double precision
+            weight[current] += 1.;
+            time += 1.;
+            return 1.;
+        }
+        double residence = (numState - 1) / rate;
+        weight[current] += residence;
+        time += residence;
+        double r = random.nextDouble() * rate;
+        if (r < numLower) {
+            int i = (int) r;
+            if (i >= p) {
+                i++;
+            }
+            current = order[i];
+        } else {
+            current = order[searchUpper(hi, (r - numLower) / up * suffix[hi])];
+        }
+        return residence;
+    }
+
+    /**
+     * Position j not less than hi with suffix[j+1] <= suffix[hi]-v <
+     * suffix[j]
+     */
+    private int searchUpper(int hi, double v) {
+        double target = suffix[hi] - v;
+        int lo = hi;
+        int top = numState - 1;
+        while (lo < top) {
+            int mid = (lo + top + 1) >>> 1;
+            if (suffix[mid] > target) {
+                lo = mid;
+            } else {
+                top = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Run events until the given number of steps is represented
+     *
+     * @param numStep
+     * @return the number of events
+     */
+    public long run(double numStep) {
+        double end = time + numStep;
+        long numEvent = 0;
+        while (time < end) {
+            oneEvent();
+            numEvent++;
+        }
+        return numEvent;
+    }
+
+    /**
+     * Indices of states sorted by energy, by bottom-up merge sort
+     */
+    private static int[] sortByEnergy(double energy[]) {
+        int n = energy.length;
+        int a[] = new int[n];
+        int b[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        for (int w = 1; w < n; w *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * w) {
+                int mid = Math.min(n, lo + w);
+                int hi = Math.min(n, lo + 2 * w);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid && energy[a[i]] <= energy[a[j]])) {
+                        b[k] = a[i++];
+                    } else {
+                        b[k] = a[j++];
+                    }
+                }
+            }
+            int t[] = a;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Expected steps spent in each state
+     *
+     * @return
+     */
+    public double[] getWeight() {
+        return weight;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * Frequencies of states weighted by residence time
+     *
+     * @return
+     */
+    public double[] evalFreq() {
+        double f[] = new double[numState];
+        for (int i = 0; i < numState; i++) {
+            f[i] = weight[i] / time;
+        }
+        return f;
+    }
+
+    /**
+     * theoretical values for frequencies
+     *
+     * @return
+     */
+    public double[] expectation() {
+        return SimpleMC.expectation(energy, temperature);
+    }
+
+    /**
+     * Mean energy weighted by the given frequencies
+     *
+     * @param f
+     * @return
+     */
+    public double meanEnergy(double f[]) {
+        double e = 0.;
+        for (int i = 0; i < numState; i++) {
+            e += f[i] * energy[i];
+        }
+        return e;
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(48L);
+        double energy[] = {0., 1., 2., 4.};
+        RejectionFreeMC mc = new RejectionFreeMC(energy, random);
+        mc.setTemperature(0.5);
+        long numEvent = mc.run(1.e8);
+        System.out.println("Events    :" + numEvent);
+        System.out.println("Simulation:" + SimpleMC.a2s(mc.evalFreq()));
+        System.out.println("Theory    :" + SimpleMC.a2s(mc.expectation()));
+
+        int numState = 1000000;
+        double many[] = new double[numState];
+        for (int i = 0; i < numState; i++) {
+            many[i] = 10. * random.nextDouble();
+        }
+        mc = new RejectionFreeMC(many, random);
+        mc.setTemperature(0.5);
+        mc.run(1.e6);
+        mc.clear();
+        numEvent = mc.run(1.e7);
+        System.out.println("Events    :" + numEvent);
+        System.out.println("Simulation:" + mc.meanEnergy(mc.evalFreq()));
+        System.out.println("Theory    :" + mc.meanEnergy(mc.expectation()));
+    }
+}
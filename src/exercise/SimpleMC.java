@@ -73,6 +73,18 @@ public class SimpleMC {
      * @return
      */
     public double[] expectation() {
+        return expectation(energy, temperature);
+    }
+
+    /**
+     * theoretical values for frequencies
+     *
+     * @param energy energy of each state
+     * @param temperature
+     * @return
+     */
+    public static double[] expectation(double energy[], double temperature) {
+        int numState = energy.length;
         double sum = 0.;
         double f[] = new double[numState];
         for (int i = 0; i < numState; i++) {
@@ -0,0 +1,130 @@
+package exercise;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Temperature dependence with all temperatures run concurrently
+ *
+ * Walkers of each temperature are divided into chunks, each advanced by a
+ * MultiWalkerMC in its own task with its own random stream. Histograms of
+ * chunks are merged per temperature. Streams are split from one seed in a
+ * fixed order, so results do not depend on the number of threads.
+ *
+ * @author tadaki
+ */
+public class TemperatureSweep {
+
+    private final double energy[];//energy of each state
+    private final int numWalker;//walkers per temperature
+    private final int numChunk;//tasks per temperature
+    private int numThread = Runtime.getRuntime().availableProcessors();
+    private int numEquilibrate = 100;//steps per walker before recording
+
+    /**
+     * @param energy energy of each state
+     * @param numWalker walkers per temperature
+     * @param numChunk tasks per temperature
+     */
+    public TemperatureSweep(double energy[], int numWalker, int numChunk) {
+        if (numChunk < 1 || numWalker < numChunk) {
+            throw new IllegalArgumentException("illegal number of chunks");
+        }
+        this.energy = energy;
+        this.numWalker = numWalker;
+        this.numChunk = numChunk;
+    }
+
+    /**
+     * Histograms at all temperatures
+     *
+     * @param temperatures
+     * @param numStep recorded steps per walker
+     * @param seed
+     * @return merged histogram for each temperature
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public long[][] run(double temperatures[], int numStep, long seed)
+            throws InterruptedException, ExecutionException {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Callable<long[]>> tasks = new ArrayList<>();
+        for (double temperature : temperatures) {
+            for (int k = 0; k < numChunk; k++) {
+                int w = numWalker / numChunk + (k < numWalker % numChunk ? 1 : 0);
+                SplittableRandom random = master.split();
+                tasks.add(() -> {
+                    MultiWalkerMC mc = new MultiWalkerMC(energy, w, random);
+                    mc.setTemperature(temperature);
+                    mc.advance(numEquilibrate);
+                    mc.sample(numStep);
+                    return mc.getCount();
+                });
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(numThread);
+        try {
+            List<Future<long[]>> futures = executor.invokeAll(tasks);
+            long histogram[][] = new long[temperatures.length][energy.length];
+            for (int i = 0; i < futures.size(); i++) {
+                long c[] = futures.get(i).get();
+                long h[] = histogram[i / numChunk];
+                for (int s = 0; s < c.length; s++) {
+                    h[s] += c[s];
+                }
+            }
+            return histogram;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void setNumThread(int numThread) {
+        this.numThread = numThread;
+    }
+
+    public void setNumEquilibrate(int numEquilibrate) {
+        this.numEquilibrate = numEquilibrate;
+    }
+
+    /**
+     * @param args the command line arguments
+     * @throws java.io.IOException
+     * @throws java.lang.InterruptedException
+     * @throws java.util.concurrent.ExecutionException
+     */
+    public static void main(String[] args)
+            throws IOException, InterruptedException, ExecutionException {
+        double energy[] = {0., 1., 2.};
+        int numT = 11;
+        double temperatures[] = new double[numT];
+        for (int i = 0; i < numT; i++) {
+            temperatures[i] = Math.pow(2., i);
+        }
+        TemperatureSweep sweep = new TemperatureSweep(energy, 4000, 4);
+        long histogram[][] = sweep.run(temperatures, 1000, 48L);
+        List<String> outString = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < numT; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(temperatures[i]).append(" ");
+            sb.append(SimpleMC.a2ss(MultiWalkerMC.evalFreq(histogram[i])));
+            sb.append(" ");
+            sb.append(SimpleMC.a2ss(
+                    SimpleMC.expectation(energy, temperatures[i])));
+            outString.add(sb.toString());
+        }
+        String filename = TemperatureSweep.class.getSimpleName() + ".txt";
+        try (PrintStream out = new PrintStream(filename)) {
+            outString.forEach(s -> out.println(s));
+        }
+    }
+}
@@ -2,48 +2,119 @@ package gui;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
+ * Panel showing images drawn on another thread
+ *
+ * Three images circulate: one being drawn by the renderer, one ready to be
+ * shown, and one shown. They are exchanged through atomic references, so
+ * neither thread waits and no image is drawn while it is shown.
  *
  * @author tadaki
  */
 public class DrawPanel extends javax.swing.JPanel {
-    private BufferedImage image;
+    private final AtomicReference<BufferedImage> ready
+            = new AtomicReference<>();//drawn, not yet shown
+    private final AtomicReference<BufferedImage> spare
+            = new AtomicReference<>();//shown before, free for drawing
+    private BufferedImage image;//shown, used on the event dispatch thread only
+    private volatile Zoom zoom = new Zoom(1., 0., 0.);//changed on the EDT only
+    private Point dragFrom = null;
+
+    /**
+     * Magnification followed by shift in pixels, applied to the viewport
+     */
+    public record Zoom(double factor, double tx, double ty) {
+
+    }
+
     /**
      * Creates new form DrawPanel
      */
     public DrawPanel() {
         initComponents();
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double f = Math.pow(1.1, -e.getPreciseWheelRotation());
+                Zoom z = zoom;
+                zoom = new Zoom(z.factor() * f, e.getX() - f * (e.getX() - z.tx()),
+                        e.getY() - f * (e.getY() - z.ty()));
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragFrom != null) {
+                    Zoom z = zoom;
+                    zoom = new Zoom(z.factor(), z.tx() + e.getX() - dragFrom.x,
+                            z.ty() + e.getY() - dragFrom.y);
+                    dragFrom = e.getPoint();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    zoom = new Zoom(1., 0., 0.);
+                }
+            }
+        };
+        addMouseWheelListener(mouse);
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
     }
 
-    public void setImgage(BufferedImage image) {
-        this.image = image;
-        repaint();
+    /**
+     * Current zoom set by the mouse: wheel to zoom, drag to pan, double click
+     * to reset
+     *
+     * @return
+     */
+    public Zoom getZoom() {
+        return zoom;
     }
-    public void initImage() {
-        int width = getWidth();
-        int height = getHeight();
-        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = (java.awt.Graphics2D) image.getGraphics();
-        g.setColor(this.getBackground());
-        g.fillRect(0, 0, width, height);
+
+    /**
+     * Handing a drawn image for showing
+     *
+     * @param drawn image no longer touched by the caller
+     * @return image free for the next frame, or null if none
+     */
+    public BufferedImage present(BufferedImage drawn) {
+        BufferedImage skipped = ready.getAndSet(drawn);
+        repaint();
+        if (skipped != null) {//never shown
+            return skipped;
+        }
+        return spare.getAndSet(null);
     }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g); 
+        BufferedImage next = ready.getAndSet(null);
+        if (next != null) {
+            if (image != null) {
+                spare.set(image);
+            }
+            image = next;
+        }
         Graphics2D gg=(Graphics2D)g;
-//        gg.translate(0, getWidth());
-//        gg.scale(1, -1);
-        gg.drawImage(image, null,10,10);
-    }
-
-    public BufferedImage getImage() {
-        return image;
+        gg.drawImage(image, null, 0, 0);
     }
 
-    
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -1,81 +1,102 @@
 package gui;
 
-import java.awt.BasicStroke;
-import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Path2D;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import model.Simulation;
+import model.Xoroshiro128;
 
 /**
+ * Annealing for the GUI, run on its own thread
+ *
+ * The thread never waits for drawing. At most once per publishInterval it
+ * publishes an immutable snapshot of the circuit, which the renderer picks
+ * up whenever it draws a frame.
  *
  * @author tadaki
  */
 public class GuiSimulation implements Runnable {
 
     private volatile boolean running = false;
-    private final int sleepTime = 100;
+    private final long publishInterval = 33000000L;//nanoseconds between snapshots
+    private long lastPublish;
     private int tInterval = 100;
     private final Simulation sys;
-    private final double r = 10;
-    private final double fx = 2.;
-    private final double fy = 2;
     private final double coolingRate = 0.98;
     private int t = 0;
-    private DrawPanel drawPanel;
+    private final AtomicReference<TourSnapshot> snapshot
+            = new AtomicReference<>();
 
     public GuiSimulation() throws IOException {
-        sys = new Simulation("points.txt",new Random(48L));
+        sys = new Simulation("points.txt", new Xoroshiro128(48L));
         t = 0;
+        publish();
     }
 
-    public void createImage(BufferedImage image) {
-        Graphics2D g = (Graphics2D) image.getGraphics();
-        g.translate(50, 850);
-        g.scale(1., -1.);
+    /**
+     * One stage: Monte Carlo steps followed by cooling
+     *
+     * Returns without cooling as soon as the simulation is stopped, since a
+     * stage grows to millions of Monte Carlo steps.
+     */
+    public void oneStage() {
         for (int i = 0; i < tInterval; i++) {
+            if (!running) {
+                return;
+            }
             sys.oneMonteCarloStep();
+            publishIfDue();
         }
-        List<Point> path = sys.currentPath();
-        Path2D.Double polygon = new Path2D.Double();
-        polygon.moveTo(fx * path.get(0).x, fy * path.get(0).y);
-        for (int i = 1; i < path.size(); i++) {
-            Point p = path.get(i);
-            polygon.lineTo(fx * p.x, fy * p.y);
-        }
-        polygon.closePath();
-        g.setColor(Color.CYAN);
-        g.setStroke(new BasicStroke(3));
-        g.draw(polygon);
-        g.setColor(Color.red);
-        path.forEach(p
-                -> g.fill(new Ellipse2D.Double(fx * p.x - r, fy * p.y - r, 
-                        2 * r, 2 * r)));
         sys.cooling(coolingRate);
         t++;
         tInterval = (int) (tInterval / coolingRate);
+        publishIfDue();
     }
 
-    public void setDrawPanel(DrawPanel drawPanel) {
-        this.drawPanel = drawPanel;
+    private void publishIfDue() {
+        if (System.nanoTime() - lastPublish >= publishInterval) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        lastPublish = System.nanoTime();
+        snapshot.set(new TourSnapshot(sys.getTour().order(),
+                sys.getInstance().getX(), sys.getInstance().getY(), t,
+                sys.getTemperature(), sys.getPathLength()));
+    }
+
+    /**
+     * Latest snapshot
+     *
+     * @return
+     */
+    public TourSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Lower left corner of the cities
+     *
+     * @return
+     */
+    public Point getMin() {
+        return sys.getMin();
+    }
+
+    /**
+     * Upper right corner of the cities
+     *
+     * @return
+     */
+    public Point getMax() {
+        return sys.getMax();
     }
 
     @Override
     public void run() {
         while (running) {
-            drawPanel.initImage();
-            BufferedImage image = drawPanel.getImage();
-            createImage(image);
-            drawPanel.setImgage(image);
-            try {
-                Thread.sleep(sleepTime);
-            } catch (InterruptedException e) {
-            }
+            oneStage();
         }
     }
 
@@ -1,10 +1,10 @@
 package gui;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.swing.SwingWorker;
 import model.Simulation;
 
 /**
@@ -16,13 +16,16 @@ public class MainFrame extends javax.swing.JFrame {
     private final Random random;
     private final int n = 200;
     private GuiSimulation sys;
+    private TourRenderer renderer;
+    private Thread annealing;
+    private Thread rendering;
+    private final int maxFps = 30;
 
     /**
      * Creates new form MainFrame
      */
     public MainFrame() {
         initComponents();
-        drawPanel.initImage();
         random = new Random(29874L);
     }
 
@@ -110,19 +113,74 @@ public class MainFrame extends javax.swing.JFrame {
     }//GEN-LAST:event_quitActionPerformed
 
     private void startActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_startActionPerformed
+        if (sys != null) {
+            stopRun(this::startRun);
+        } else {
+            startRun();
+        }
+    }//GEN-LAST:event_startActionPerformed
+
+    private void stopActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_stopActionPerformed
+        if (sys != null) {
+            stopRun(null);
+        }
+    }//GEN-LAST:event_stopActionPerformed
+
+    private void startRun() {
         try {
             sys = new GuiSimulation();
-            sys.setDrawPanel(drawPanel);
+            renderer = new TourRenderer(sys, drawPanel, maxFps);
             sys.setRunning(true);
-            new Thread(sys).start();
+            renderer.setRunning(true);
+            annealing = new Thread(sys, "annealing");
+            annealing.start();
+            rendering = new Thread(renderer, "renderer");
+            rendering.setDaemon(true);
+            rendering.start();
         } catch (IOException ex) {
             Logger.getLogger(MainFrame.class.getName()).log(Level.SEVERE, null, ex);
         }
-    }//GEN-LAST:event_startActionPerformed
+    }
 
-    private void stopActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_stopActionPerformed
+    /**
+     * Stopping the current run
+     *
+     * The threads are joined in the background, so that the event dispatch
+     * thread is not blocked. Start and Stop are disabled until both threads
+     * have ended, so that runs never overlap.
+     *
+     * @param next executed on the event dispatch thread after the threads
+     * have ended, or null
+     */
+    private void stopRun(Runnable next) {
         sys.setRunning(false);
-    }//GEN-LAST:event_stopActionPerformed
+        renderer.setRunning(false);
+        rendering.interrupt();
+        Thread a = annealing;
+        Thread r = rendering;
+        sys = null;
+        renderer = null;
+        start.setEnabled(false);
+        stop.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws InterruptedException {
+                //waiting for the current Monte Carlo step
+                a.join();
+                r.join();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                start.setEnabled(true);
+                stop.setEnabled(true);
+                if (next != null) {
+                    next.run();
+                }
+            }
+        }.execute();
+    }
 
     /**
      * @param args the command line arguments
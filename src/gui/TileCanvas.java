@@ -0,0 +1,359 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Raster of a large circuit redrawn tile by tile
+ *
+ * The screen is divided into square tiles. Screen positions of cities and
+ * the number of cities in each tile are computed once for a viewport; tiles
+ * holding too many cities to be told apart are filled once with a colour by
+ * density instead of drawing their cities and edges, and never redrawn.
+ * Between frames, only other tiles touched by edges added or removed are
+ * cleared and redrawn. Lines are clipped to the screen, so cities out of
+ * sight cost a test only.
+ *
+ * @author tadaki
+ */
+public class TileCanvas {
+
+    public static final int TILE = 8;//tile size in pixels
+    private static final int DENSE = TILE * TILE / 4;//cities in a dense tile
+    private final Viewport view;
+    private final int width, height;
+    private final int tilesX, tilesY;
+    private final BufferedImage image;
+    private final int pixels[];
+    private final float sx[], sy[];//screen positions of cities
+    private final int tileColor[];//colour of dense tiles, 0 for others
+    private final boolean dirty[];//tiles to be redrawn, never dense ones
+    private int next[];//successors of cities in the drawn circuit
+    private int prev[];
+    private int newNext[];//buffers for the circuit being drawn
+    private int newPrev[];
+    private boolean drawn = false;//whether a circuit has been drawn
+    private final int background, edge, city;
+
+    /**
+     * @param x x coordinates of cities
+     * @param y y coordinates of cities
+     * @param view
+     * @param width
+     * @param height
+     * @param background
+     * @param edge colour of edges
+     * @param city colour of cities
+     */
+    public TileCanvas(double x[], double y[], Viewport view, int width,
+            int height, Color background, Color edge, Color city) {
+        this.view = view;
+        this.width = width;
+        this.height = height;
+        this.background = background.getRGB();
+        this.edge = edge.getRGB();
+        this.city = city.getRGB();
+        tilesX = (width + TILE - 1) / TILE;
+        tilesY = (height + TILE - 1) / TILE;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int n = x.length;
+        sx = new float[n];
+        sy = new float[n];
+        int count[] = new int[tilesX * tilesY];
+        for (int c = 0; c < n; c++) {
+            sx[c] = (float) view.screenX(x[c]);
+            sy[c] = (float) view.screenY(y[c]);
+            int t = tileAt(sx[c], sy[c]);
+            if (t >= 0) {
+                count[t]++;
+            }
+        }
+        int max = DENSE;
+        for (int k : count) {
+            max = Math.max(max, k);
+        }
+        tileColor = new int[count.length];
+        double range = Math.log((double) max / DENSE) + 1.;
+        for (int t = 0; t < count.length; t++) {
+            if (count[t] >= DENSE) {
+                double f = 0.3 + 0.7 * (Math.log((double) count[t] / DENSE) + 1.)
+                        / range;
+                tileColor[t] = blend(background, city, f) | 0xFF000000;
+                fillTile(t, tileColor[t]);
+            }
+        }
+        dirty = new boolean[count.length];
+        next = new int[n];
+        prev = new int[n];
+        newNext = new int[n];
+        newPrev = new int[n];
+    }
+
+    private static int blend(Color a, Color b, double f) {
+        int r = (int) (a.getRed() + f * (b.getRed() - a.getRed()));
+        int g = (int) (a.getGreen() + f * (b.getGreen() - a.getGreen()));
+        int bl = (int) (a.getBlue() + f * (b.getBlue() - a.getBlue()));
+        return (r << 16) | (g << 8) | bl;
+    }
+
+    private int tileAt(double px, double py) {
+        if (px < 0 || py < 0 || px >= width || py >= height) {
+            return -1;
+        }
+        return ((int) py / TILE) * tilesX + (int) px / TILE;
+    }
+
+    /**
+     * True if made for the given viewport and size
+     *
+     * @param view
+     * @param width
+     * @param height
+     * @return
+     */
+    public boolean fits(Viewport view, int width, int height) {
+        return this.view.equals(view) && this.width == width
+                && this.height == height;
+    }
+
+    /**
+     * Bringing the raster up to the given circuit
+     *
+     * @param order cities along the circuit
+     * @return the number of tiles redrawn
+     */
+    public int update(int order[]) {
+        int n = order.length;
+        int nn[] = newNext;
+        int pp[] = newPrev;
+        for (int i = 0; i < n; i++) {
+            nn[order[i]] = order[(i + 1 == n) ? 0 : i + 1];
+            pp[order[i]] = order[(i == 0) ? n - 1 : i - 1];
+        }
+        if (!drawn) {
+            for (int t = 0; t < dirty.length; t++) {
+                dirty[t] = (tileColor[t] == 0);
+            }
+            drawn = true;
+        } else {
+            for (int c = 0; c < n; c++) {
+                //edges of c, ignoring their direction
+                int a = next[c];
+                int b = prev[c];
+                int u = nn[c];
+                int v = pp[c];
+                if (a != u && a != v) {
+                    markEdge(c, a);
+                }
+                if (b != u && b != v) {
+                    markEdge(c, b);
+                }
+                if (u != a && u != b) {
+                    markEdge(c, u);
+                }
+                if (v != a && v != b) {
+                    markEdge(c, v);
+                }
+            }
+        }
+        newNext = next;
+        newPrev = prev;
+        next = nn;
+        prev = pp;
+        return redraw();
+    }
+
+    /**
+     * Marking tiles of the bounding box of an edge within the screen
+     *
+     * Dense tiles are not marked, so that an edge lying only in dense tiles
+     * costs nothing when redrawing.
+     */
+    private void markEdge(int a, int b) {
+        if (offScreen(a, b)) {
+            return;
+        }
+        int x0 = clampTile(Math.min(sx[a], sx[b]), tilesX);
+        int x1 = clampTile(Math.max(sx[a], sx[b]), tilesX);
+        int y0 = clampTile(Math.min(sy[a], sy[b]), tilesY);
+        int y1 = clampTile(Math.max(sy[a], sy[b]), tilesY);
+        for (int ty = y0; ty <= y1; ty++) {
+            for (int tx = x0; tx <= x1; tx++) {
+                int t = ty * tilesX + tx;
+                if (tileColor[t] == 0) {
+                    dirty[t] = true;
+                }
+            }
+        }
+    }
+
+    private static int clampTile(double p, int numTile) {
+        int t = (int) Math.floor(p / TILE);
+        return Math.max(0, Math.min(numTile - 1, t));
+    }
+
+    private boolean offScreen(int a, int b) {
+        return Math.max(sx[a], sx[b]) < 0 || Math.max(sy[a], sy[b]) < 0
+                || Math.min(sx[a], sx[b]) >= width
+                || Math.min(sy[a], sy[b]) >= height;
+    }
+
+    private boolean touchesDirty(int a, int b) {
+        if (offScreen(a, b)) {
+            return false;
+        }
+        int tx0 = clampTile(Math.min(sx[a], sx[b]), tilesX);
+        int tx1 = clampTile(Math.max(sx[a], sx[b]), tilesX);
+        int ty0 = clampTile(Math.min(sy[a], sy[b]), tilesY);
+        int ty1 = clampTile(Math.max(sy[a], sy[b]), tilesY);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                if (dirty[ty * tilesX + tx]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int redraw() {
+        int numDirty = 0;
+        for (int t = 0; t < dirty.length; t++) {
+            if (!dirty[t]) {
+                continue;
+            }
+            numDirty++;
+            fillTile(t, background);
+        }
+        if (numDirty == 0) {
+            return 0;
+        }
+        int n = next.length;
+        for (int c = 0; c < n; c++) {
+            int d = next[c];
+            if (touchesDirty(c, d)) {
+                //the same pixels whichever direction the edge is traversed
+                int a = Math.min(c, d);
+                int b = Math.max(c, d);
+                drawLine(sx[a], sy[a], sx[b], sy[b], edge);
+            }
+        }
+        for (int c = 0; c < n; c++) {
+            int px = (int) sx[c];
+            int py = (int) sy[c];
+            if (markTouchesDirty(px, py)) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        plot(px + dx, py + dy, city);
+                    }
+                }
+            }
+        }
+        Arrays.fill(dirty, false);
+        return numDirty;
+    }
+
+    private void fillTile(int t, int color) {
+        int px0 = (t % tilesX) * TILE;
+        int py0 = (t / tilesX) * TILE;
+        int px1 = Math.min(width, px0 + TILE);
+        int py1 = Math.min(height, py0 + TILE);
+        for (int py = py0; py < py1; py++) {
+            Arrays.fill(pixels, py * width + px0, py * width + px1, color);
+        }
+    }
+
+    /**
+     * True if the mark of a city at (px,py) lies partly in a dirty tile
+     */
+    private boolean markTouchesDirty(int px, int py) {
+        if (px < -1 || py < -1 || px > width || py > height) {
+            return false;
+        }
+        int tx0 = clampTile(px - 1, tilesX);
+        int tx1 = clampTile(px + 1, tilesX);
+        int ty0 = clampTile(py - 1, tilesY);
+        int ty1 = clampTile(py + 1, tilesY);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                if (dirty[ty * tilesX + tx]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Setting a pixel in a dirty tile
+     */
+    private void plot(int px, int py, int color) {
+        if (px < 0 || py < 0 || px >= width || py >= height) {
+            return;
+        }
+        int t = (py / TILE) * tilesX + px / TILE;
+        if (dirty[t]) {
+            pixels[py * width + px] = color;
+        }
+    }
+
+    /**
+     * Line clipped to the screen (Liang-Barsky), then drawn by Bresenham
+     */
+    private void drawLine(double x0, double y0, double x1, double y1, int color) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double t0 = 0.;
+        double t1 = 1.;
+        double p[] = {-dx, dx, -dy, dy};
+        double q[] = {x0, width - 1 - x0, y0, height - 1 - y0};
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0.) {
+                if (q[i] < 0.) {
+                    return;
+                }
+            } else {
+                double r = q[i] / p[i];
+                if (p[i] < 0.) {
+                    t0 = Math.max(t0, r);
+                } else {
+                    t1 = Math.min(t1, r);
+                }
+            }
+        }
+        if (t0 > t1) {
+            return;
+        }
+        int ax = (int) (x0 + t0 * dx);
+        int ay = (int) (y0 + t0 * dy);
+        int bx = (int) (x0 + t1 * dx);
+        int by = (int) (y0 + t1 * dy);
+        int ex = Math.abs(bx - ax);
+        int ey = -Math.abs(by - ay);
+        int stepX = ax < bx ? 1 : -1;
+        int stepY = ay < by ? 1 : -1;
+        int err = ex + ey;
+        while (true) {
+            plot(ax, ay, color);
+            if (ax == bx && ay == by) {
+                break;
+            }
+            int e2 = 2 * err;
+            if (e2 >= ey) {
+                err += ey;
+                ax += stepX;
+            }
+            if (e2 <= ex) {
+                err += ex;
+                ay += stepY;
+            }
+        }
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,170 @@
+package gui;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Drawing snapshots of a run on its own thread at a capped frame rate
+ *
+ * Images are drawn off the event dispatch thread and handed to DrawPanel,
+ * which gives back an image no longer shown for the next frame. Nothing is
+ * drawn while the snapshot and the viewport are unchanged. Cities are mapped
+ * into the panel from their bounding box, with the zoom of the panel. Large
+ * circuits are drawn by a TileCanvas, which draws dense regions by density
+ * and redraws only tiles touched by changed edges.
+ *
+ * @author tadaki
+ */
+public class TourRenderer implements Runnable {
+
+    private volatile boolean running = false;
+    private final GuiSimulation sys;
+    private final DrawPanel drawPanel;
+    //the number of cities above which TileCanvas is used
+    public static final int LOD_THRESHOLD = 20000;
+    private final long frameNanos;//minimum interval between frames
+    private final int margin = 20;//margin in pixels around cities
+    private final double maxRadius = 10;//radius of cities in pixels
+    private BufferedImage image = null;//image being drawn, owned by this thread
+    private TileCanvas canvas = null;//raster for large circuits
+
+    /**
+     * @param sys source of snapshots
+     * @param drawPanel
+     * @param maxFps maximum number of frames per second
+     */
+    public TourRenderer(GuiSimulation sys, DrawPanel drawPanel, int maxFps) {
+        this.sys = sys;
+        this.drawPanel = drawPanel;
+        frameNanos = 1000000000L / maxFps;
+    }
+
+    @Override
+    public void run() {
+        TourSnapshot drawn = null;
+        Viewport drawnView = null;
+        long next = System.nanoTime();
+        while (running) {
+            TourSnapshot snapshot = sys.getSnapshot();
+            Viewport view = viewport();
+            if (snapshot != null
+                    && (snapshot != drawn || !view.equals(drawnView))) {
+                drawFrame(snapshot, view);
+                drawn = snapshot;
+                drawnView = view;
+            }
+            next += frameNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Viewport for the current size and zoom of the panel
+     */
+    private Viewport viewport() {
+        int width = Math.max(1, drawPanel.getWidth());
+        int height = Math.max(1, drawPanel.getHeight());
+        DrawPanel.Zoom zoom = drawPanel.getZoom();
+        return Viewport.fit(sys.getMin(), sys.getMax(), width, height, margin)
+                .transformed(zoom.factor(), zoom.tx(), zoom.ty());
+    }
+
+    private void drawFrame(TourSnapshot snapshot, Viewport view) {
+        int width = Math.max(1, drawPanel.getWidth());
+        int height = Math.max(1, drawPanel.getHeight());
+        if (image == null || image.getWidth() != width
+                || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g = image.createGraphics();
+        if (snapshot.order().length > LOD_THRESHOLD) {
+            if (canvas == null || !canvas.fits(view, width, height)) {
+                canvas = new TileCanvas(snapshot.x(), snapshot.y(), view,
+                        width, height, drawPanel.getBackground(), Color.CYAN,
+                        Color.red);
+            }
+            canvas.update(snapshot.order());
+            g.drawImage(canvas.getImage(), 0, 0, null);
+        } else {
+            canvas = null;
+            g.setColor(drawPanel.getBackground());
+            g.fillRect(0, 0, width, height);
+            draw(g, snapshot, view, width, height);
+        }
+        g.dispose();
+        image = drawPanel.present(image);
+    }
+
+    /**
+     * Drawing the circuit and cities, skipping those out of the screen
+     *
+     * @param g
+     * @param snapshot
+     * @param view
+     * @param width width of the screen
+     * @param height height of the screen
+     */
+    protected void draw(Graphics2D g, TourSnapshot snapshot, Viewport view,
+            int width, int height) {
+        int order[] = snapshot.order();
+        double x[] = snapshot.x();
+        double y[] = snapshot.y();
+        int n = order.length;
+        Point min = sys.getMin();
+        Point max = sys.getMax();
+        double spacing = view.scale() * Math.sqrt(
+                Math.max(1., (double) (max.x - min.x) * (max.y - min.y)) / n);
+        double r = Math.max(1.5, Math.min(maxRadius, 0.3 * spacing));
+        Path2D.Double polygon = new Path2D.Double();
+        int last = -1;//end of the current subpath
+        for (int i = 0; i < n; i++) {
+            int a = order[i];
+            int b = order[(i + 1 == n) ? 0 : i + 1];
+            double ax = view.screenX(x[a]);
+            double ay = view.screenY(y[a]);
+            double bx = view.screenX(x[b]);
+            double by = view.screenY(y[b]);
+            if (Math.max(ax, bx) < 0 || Math.min(ax, bx) > width
+                    || Math.max(ay, by) < 0 || Math.min(ay, by) > height) {
+                continue;
+            }
+            if (last != a) {
+                polygon.moveTo(ax, ay);
+            }
+            polygon.lineTo(bx, by);
+            last = b;
+        }
+        g.setColor(Color.CYAN);
+        g.setStroke(new BasicStroke((float) Math.max(1., 0.3 * r)));
+        g.draw(polygon);
+        g.setColor(Color.red);
+        Ellipse2D.Double circle = new Ellipse2D.Double();
+        for (int c : order) {
+            double px = view.screenX(x[c]);
+            double py = view.screenY(y[c]);
+            if (px < -r || py < -r || px > width + r || py > height + r) {
+                continue;
+            }
+            circle.setFrame(px - r, py - r, 2 * r, 2 * r);
+            g.fill(circle);
+        }
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+}
@@ -0,0 +1,14 @@
+package gui;
+
+/**
+ * Immutable state of a run handed from the annealing thread to the renderer
+ *
+ * The order is a copy owned by the snapshot; coordinates are those of the
+ * instance, which are never modified.
+ *
+ * @author tadaki
+ */
+public record TourSnapshot(int[] order, double[] x, double[] y, int stage,
+        double temperature, double pathLength) {
+
+}
@@ -0,0 +1,52 @@
+package gui;
+
+import java.awt.Point;
+
+/**
+ * Mapping of city coordinates to pixels, with y pointing up
+ *
+ * @author tadaki
+ */
+public record Viewport(double scale, double originX, double originY) {
+
+    /**
+     * Viewport showing the whole rectangle, centred in the screen
+     *
+     * @param min lower left corner of cities
+     * @param max upper right corner of cities
+     * @param width width of the screen
+     * @param height height of the screen
+     * @param margin margin in pixels
+     * @return
+     */
+    public static Viewport fit(Point min, Point max, int width, int height,
+            int margin) {
+        double w = Math.max(1, max.x - min.x);
+        double h = Math.max(1, max.y - min.y);
+        double scale = Math.max(1e-9, Math.min((width - 2 * margin) / w,
+                (height - 2 * margin) / h));
+        double ox = (width - scale * w) / 2 - scale * min.x;
+        double oy = (height + scale * h) / 2 + scale * min.y;
+        return new Viewport(scale, ox, oy);
+    }
+
+    /**
+     * Viewport after zooming and panning on the screen
+     *
+     * @param zoom magnification
+     * @param tx horizontal shift in pixels after magnification
+     * @param ty vertical shift in pixels after magnification
+     * @return
+     */
+    public Viewport transformed(double zoom, double tx, double ty) {
+        return new Viewport(scale * zoom, zoom * originX + tx, zoom * originY + ty);
+    }
+
+    public double screenX(double x) {
+        return originX + scale * x;
+    }
+
+    public double screenY(double y) {
+        return originY - scale * y;
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+/**
+ * Metropolis criterion with few evaluations of exp
+ *
+ * exp(-x) is tabulated at x=k/SCALE. As exp is monotonic, a uniform number
+ * below the entry at the upper end of the interval containing x=d/T is
+ * accepted and one above the entry at the lower end is rejected; only
+ * numbers falling between the two entries, a fraction about 1/SCALE of
+ * uphill trials, need Math.exp. The decision is thus that of comparing with
+ * Math.exp(-d/T), up to rounding of d/T. The table depends on no
+ * temperature, which enters through its inverse kept by setTemperature().
+ *
+ * @author tadaki
+ */
+public class Acceptance {
+
+    private static final int SCALE = 64;//table entries per unit of d/T
+    private static final int CUTOFF = 48;//exp(-CUTOFF) is below 2^-53
+    private static final double TABLE[] = new double[CUTOFF * SCALE + 2];
+
+    static {
+        for (int k = 0; k < TABLE.length; k++) {
+            TABLE[k] = Math.exp(-(double) k / SCALE);
+        }
+    }
+
+    private double temperature = 1.;
+    private double scaledInverse = SCALE;//SCALE/temperature
+
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+        scaledInverse = SCALE / temperature;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    /**
+     * Metropolis criterion
+     *
+     * @param d change of energy
+     * @param u uniform random number in [0,1)
+     * @return true if u is less than exp(-d/T)
+     */
+    public boolean accept(double d, double u) {
+        if (d <= 0.) {
+            return true;
+        }
+        double x = d * scaledInverse;
+        if (x >= CUTOFF * SCALE) {
+            return u < TABLE[CUTOFF * SCALE] && u < Math.exp(-d / temperature);
+        }
+        int k = (int) x;
+        if (u < TABLE[k + 1]) {
+            return true;
+        }
+        if (u >= TABLE[k]) {
+            return false;
+        }
+        return u < Math.exp(-d / temperature);
+    }
+}
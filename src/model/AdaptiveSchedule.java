@@ -0,0 +1,233 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cooling schedule adapted to the observed acceptance
+ *
+ * The start temperature is calibrated from sampled moves so that the
+ * given ratio of candidates is accepted. Each stage ends when enough
+ * trials have been accepted or the trial limit is reached. The cooling
+ * rate is fast while almost everything is accepted and slow in the
+ * critical range. The run stops when the best length has not improved for
+ * a given number of frozen stages, where few uphill trials are accepted.
+ * Optionally the run is finished by local search as soon as the ratio of
+ * accepted uphill trials falls to a given level.
+ *
+ * @author tadaki
+ */
+public class AdaptiveSchedule {
+
+    private double initialAcceptance = 0.5;//target ratio at T0
+    private int numSample = 1000;//samples for calibration
+    private double acceptedPerCity = 10.;//accepted trials per city per stage
+    private double trialsPerCity = 100.;//maximum trials per city per stage
+    private double fastCooling = 0.8;//rate while acceptance is high
+    private double slowCooling = 0.95;//rate in the critical range
+    private double finalCooling = 0.9;//rate while acceptance is low
+    private double highAcceptance = 0.8;
+    private double lowAcceptance = 0.01;
+    private int patience = 5;//stages without improvement before stopping
+    private int maxStage = 10000;
+    private double minImprovement = 1e-6;//relative improvement of best
+    private double quenchRatio = -1.;//uphill ratio starting quench, <0 for none
+
+    /**
+     * Calibrating the start temperature
+     *
+     * Candidates are sampled without being applied and the temperature at
+     * which the expected acceptance ratio of uphill candidates equals the
+     * target is found by bisection. Downhill candidates are left out, since
+     * they dominate while the path is far from good.
+     *
+     * @param sim
+     * @param target acceptance ratio at the start temperature
+     * @param numSample the number of sampled candidates
+     * @return the start temperature
+     */
+    public static double calibrate(Simulation sim, double target,
+            int numSample) {
+        double up[] = new double[numSample];
+        int numUp = 0;
+        for (int i = 0; i < numSample; i++) {
+            double d = sim.sampleDelta();
+            if (d > 0.) {//NaN for no valid candidate is left out
+                up[numUp++] = d;
+            }
+        }
+        if (numUp == 0) {
+            return Double.MIN_NORMAL;
+        }
+        double mean = 0.;
+        for (int i = 0; i < numUp; i++) {
+            mean += up[i];
+        }
+        mean /= numUp;
+        double lo = mean * 1e-6;
+        double hi = mean * 1e6;
+        for (int k = 0; k < 100; k++) {//bisection in log T
+            double t = Math.sqrt(lo * hi);
+            double sum = 0.;
+            for (int i = 0; i < numUp; i++) {
+                sum += Math.exp(-up[i] / t);
+            }
+            if (sum / numUp < target) {
+                lo = t;
+            } else {
+                hi = t;
+            }
+        }
+        return Math.sqrt(lo * hi);
+    }
+
+    /**
+     * Running the schedule
+     *
+     * @param sim
+     * @return path length and temperature at the end of each stage
+     */
+    public List<Result> run(Simulation sim) {
+        return run(sim, () -> false);
+    }
+
+    /**
+     * Running the schedule until it ends or is stopped
+     *
+     * @param sim
+     * @param stop checked after each stage
+     * @return path length and temperature at the end of each stage
+     */
+    public List<Result> run(Simulation sim, BooleanSupplier stop) {
+        List<Result> plist = Collections.synchronizedList(new ArrayList<>());
+        sim.setTemperature(calibrate(sim, initialAcceptance, numSample));
+        int n = sim.getTour().numCity();
+        long acceptedTarget = Math.max(1, (long) (acceptedPerCity * n));
+        long maxTrials = Math.max(1, (long) (trialsPerCity * n));
+        double best = sim.getBestLength();
+        int stale = 0;//stages without improvement
+        int s = 0;
+        for (; s < maxStage && stale < patience; s++) {
+            long accepted = 0;
+            long trials = 0;
+            while (accepted < acceptedTarget && trials < maxTrials) {
+                if (sim.oneFlip()) {
+                    accepted++;
+                }
+                trials++;
+            }
+            plist.add(new Result(s, sim.getPathLength(), sim.getTemperature()));
+            double ratio = (double) accepted / trials;
+            //ratio of accepted trials increasing the length
+            double uphill = (double) sim.stageStats().uphill() / trials;
+            if (sim.getBestLength() < best - minImprovement * Math.abs(best)) {
+                best = sim.getBestLength();
+                stale = 0;
+            } else if (uphill <= lowAcceptance) {//counted only when frozen
+                stale++;
+            }
+            sim.cooling(coolingRate(ratio));
+            if (uphill <= quenchRatio || stop.getAsBoolean()) {
+                s++;
+                break;
+            }
+        }
+        if (quenchRatio >= 0.) {
+            sim.quench();
+            plist.add(new Result(s, sim.getPathLength(), sim.getTemperature()));
+        }
+        return plist;
+    }
+
+    /**
+     * Cooling rate for the observed acceptance ratio
+     *
+     * @param ratio
+     * @return
+     */
+    public double coolingRate(double ratio) {
+        if (ratio > highAcceptance) {
+            return fastCooling;
+        }
+        if (ratio > lowAcceptance) {
+            return slowCooling;
+        }
+        return finalCooling;
+    }
+
+    public void setInitialAcceptance(double initialAcceptance) {
+        this.initialAcceptance = initialAcceptance;
+    }
+
+    public void setNumSample(int numSample) {
+        this.numSample = numSample;
+    }
+
+    /**
+     * Setting the stage length
+     *
+     * @param acceptedPerCity a stage ends after this many accepted trials
+     * per city
+     * @param trialsPerCity or after this many trials per city
+     */
+    public void setStageLength(double acceptedPerCity, double trialsPerCity) {
+        this.acceptedPerCity = acceptedPerCity;
+        this.trialsPerCity = trialsPerCity;
+    }
+
+    /**
+     * Setting cooling rates
+     *
+     * @param fast rate while the acceptance ratio is above high
+     * @param slow rate while the acceptance ratio is between low and high
+     * @param last rate while the acceptance ratio is below low
+     * @param high
+     * @param low
+     */
+    public void setCoolingRates(double fast, double slow, double last,
+            double high, double low) {
+        fastCooling = fast;
+        slowCooling = slow;
+        finalCooling = last;
+        highAcceptance = high;
+        lowAcceptance = low;
+    }
+
+    /**
+     * Setting the stopping condition
+     *
+     * @param patience stages without improvement before stopping
+     * @param minImprovement smallest relative improvement counted
+     * @param maxStage upper limit of the number of stages
+     */
+    public void setStop(int patience, double minImprovement, int maxStage) {
+        this.patience = patience;
+        this.minImprovement = minImprovement;
+        this.maxStage = maxStage;
+    }
+
+    /**
+     * Finishing the run by local search
+     *
+     * @param quenchRatio annealing stops when the ratio of accepted uphill
+     * trials in a stage falls to this level and LocalSearch takes over; a
+     * negative value disables the quench
+     */
+    public void setQuench(double quenchRatio) {
+        this.quenchRatio = quenchRatio;
+    }
+
+    /**
+     * @param args
+     * @throws java.io.IOException
+     */
+    public static void main(String[] args) throws java.io.IOException {
+        Simulation sim = new Simulation("points.txt", new Xoroshiro128(48L));
+        AdaptiveSchedule schedule = new AdaptiveSchedule();
+        schedule.setQuench(0.01);
+        List<Result> plist = schedule.run(sim);
+        plist.forEach(r -> System.out.println(r.t() + " " + r.d() + " " + r.temp()));
+    }
+}
@@ -0,0 +1,138 @@
+package model;
+
+/**
+ * Circuit held in primitive arrays
+ *
+ * The circuit is kept as the sequence of cities and the inverse table giving
+ * the position of each city, so that next() and prev() take O(1) and 2-opt
+ * moves are applied in place. A reversal costs up to n/2 swaps.
+ *
+ * @author tadaki
+ */
+public class ArrayTour extends Tour {
+
+    private final int city[];//city at each position
+    private final int pos[];//position of each city
+
+    /**
+     * Circuit visiting cities in the order of coordinates
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param dist distance between cities
+     */
+    public ArrayTour(double x[], double y[], DistanceProvider dist) {
+        super(x, y, dist);
+        city = new int[n];
+        pos = new int[n];
+        reset();
+    }
+
+    @Override
+    public Tour share() {
+        return new ArrayTour(x, y, dist.share());
+    }
+
+    @Override
+    void load(int order[]) {
+        for (int i = 0; i < n; i++) {
+            city[i] = order[i];
+            pos[order[i]] = i;
+        }
+    }
+
+    @Override
+    public double evalPathLength() {
+        pathLength = 0.;
+        for (int i = 0; i < n; i++) {
+            pathLength += distance(city[i], city[(i + 1) % n]);
+        }
+        return pathLength;
+    }
+
+    @Override
+    public int next(int c) {
+        int i = pos[c] + 1;
+        return city[i == n ? 0 : i];
+    }
+
+    @Override
+    public int prev(int c) {
+        int i = pos[c] - 1;
+        return city[i < 0 ? n - 1 : i];
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        int i = pos[a];
+        int j = pos[b];
+        int k = pos[c];
+        if (i <= k) {
+            return i <= j && j <= k;
+        }
+        return j >= i || j <= k;
+    }
+
+    /**
+     * Reverse the segment from city s to city t along the circuit
+     *
+     * The complement is reversed instead if it is shorter.
+     *
+     * @param s first city of the segment
+     * @param t last city of the segment
+     */
+    @Override
+    void reverse(int s, int t) {
+        int i = pos[s];
+        int j = pos[t];
+        int len = j - i;
+        if (len < 0) {
+            len += n;
+        }
+        len++;
+        if (2 * len > n) {//reversing the complement
+            i = pos[t] + 1;
+            j = pos[s] - 1;
+            if (i == n) {
+                i = 0;
+            }
+            if (j < 0) {
+                j = n - 1;
+            }
+            len = n - len;
+        }
+        for (int k = 0; k < len / 2; k++) {
+            int ci = city[i];
+            int cj = city[j];
+            city[i] = cj;
+            pos[cj] = i;
+            city[j] = ci;
+            pos[ci] = j;
+            if (++i == n) {
+                i = 0;
+            }
+            if (--j < 0) {
+                j = n - 1;
+            }
+        }
+    }
+
+    /**
+     * The city at the given position
+     *
+     * @param i position
+     * @return
+     */
+    public int cityAt(int i) {
+        return city[i];
+    }
+
+    public int position(int c) {
+        return pos[c];
+    }
+
+    @Override
+    public int[] order() {
+        return city.clone();
+    }
+}
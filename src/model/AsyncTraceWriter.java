@@ -0,0 +1,221 @@
+package model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trace written to a file by a background thread
+ *
+ * Records are put into a ring buffer of primitive arrays by a single
+ * producer, the annealing thread, and taken out by the writer thread. The
+ * producer never waits: a record arriving when the ring is full is dropped
+ * and counted. Only every decimation-th record is kept, for long runs.
+ * Records are written as CSV lines "t,d,temp" or in the binary trace format
+ * of BinaryFormat. Written records are flushed to the file whenever the ring
+ * becomes empty, so that the file follows the run within about IDLE_NANOS.
+ *
+ * @author tadaki
+ */
+public class AsyncTraceWriter implements TraceSink {
+
+    /**
+     * Encoding of records
+     */
+    public enum Format {
+        CSV, BINARY
+    }
+
+    private static final long IDLE_NANOS = 1000000L;//wait of an idle writer
+    private final Format format;
+    private final int mask;//capacity - 1
+    private final long step[];//ring buffer
+    private final double length[];
+    private final double temperature[];
+    private final AtomicLong head = new AtomicLong(0);//next record to write
+    private final AtomicLong tail = new AtomicLong(0);//next free slot
+    //fields of the producer
+    private long tailLocal = 0;
+    private long headCache = 0;//last seen head
+    private final int decimation;
+    private int countdown = 1;//records until the next kept one
+    private long numDropped = 0;
+    //fields of the writer
+    private final FileChannel ch;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final Thread writer;
+    private volatile boolean closed = false;
+    private volatile IOException lastError = null;
+
+    /**
+     * @param filename
+     * @param format
+     */
+    public AsyncTraceWriter(String filename, Format format) throws IOException {
+        this(filename, format, 1 << 16, 1);
+    }
+
+    /**
+     * @param filename
+     * @param format
+     * @param capacity the number of records held, rounded up to a power of 2
+     * @param decimation only one record in this number is kept
+     * @throws IOException
+     */
+    public AsyncTraceWriter(String filename, Format format, int capacity,
+            int decimation) throws IOException {
+        if (decimation < 1 || capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("illegal capacity or decimation");
+        }
+        this.format = format;
+        this.decimation = decimation;
+        int c = Integer.highestOneBit(capacity);
+        if (c < capacity) {
+            c <<= 1;
+        }
+        mask = c - 1;
+        step = new long[c];
+        length = new double[c];
+        temperature = new double[c];
+        if (format == Format.BINARY) {
+            ch = BinaryFormat.createTrace(filename);
+        } else {
+            ch = BinaryFormat.openWrite(filename);
+            buffer.put("t,d,temp\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        writer = new Thread(this::drain, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void accept(long t, double d, double temp) {
+        if (--countdown > 0) {
+            return;
+        }
+        countdown = decimation;
+        long tl = tailLocal;
+        if (tl - headCache > mask) {
+            headCache = head.get();
+            if (tl - headCache > mask) {
+                numDropped++;
+                return;
+            }
+        }
+        int i = (int) tl & mask;
+        step[i] = t;
+        length[i] = d;
+        temperature[i] = temp;
+        tailLocal = tl + 1;
+        tail.lazySet(tl + 1);
+    }
+
+    /**
+     * Loop of the writer thread
+     */
+    private void drain() {
+        try {
+            while (true) {
+                boolean last = closed;//records before closing are all seen
+                long h = head.get();
+                long tl = tail.get();
+                if (h == tl) {
+                    if (last) {
+                        break;
+                    }
+                    if (buffer.position() > 0) {
+                        flush();
+                    }
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    continue;
+                }
+                for (; h < tl; h++) {
+                    if (buffer.remaining() < 128) {
+                        flush();
+                    }
+                    encode((int) h & mask);
+                }
+                head.lazySet(h);
+            }
+            flush();
+        } catch (IOException e) {
+            lastError = e;
+            Logger.getLogger(AsyncTraceWriter.class.getName())
+                    .log(Level.WARNING, null, e);
+        } finally {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                if (lastError == null) {
+                    lastError = e;
+                }
+            }
+        }
+    }
+
+    private void encode(int i) {
+        if (format == Format.BINARY) {
+            buffer.putLong(step[i]).putDouble(length[i])
+                    .putDouble(temperature[i]);
+        } else {
+            String line = step[i] + "," + length[i] + "," + temperature[i] + "\n";
+            buffer.put(line.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * The number of records dropped because the ring was full
+     *
+     * Read on the producer thread.
+     *
+     * @return
+     */
+    public long getNumDropped() {
+        return numDropped;
+    }
+
+    /**
+     * Error of the writer, or null
+     *
+     * @return
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Writing the remaining records and closing the file
+     *
+     * @throws IOException if writing has failed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while closing trace");
+        }
+        if (lastError != null) {
+            throw lastError;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Headless runner of annealing jobs listed in a file
+ *
+ * Each line of a job file is a job given by key=value pairs separated by
+ * white spaces. A line starting with "default" sets values for the following
+ * jobs, and blank lines and lines starting with '#' are skipped. Keys are
+ * <pre>
+ * name      label of the job (instance and line number)
+ * instance  file of cities: *.tsp TSPLIB, *.bin binary, others text
+ * seed      seed of the random number generator (48)
+ * start     initial circuit: input, nearest, greedy, hilbert or christofides
+ *           (input)
+ * schedule  geometric or adaptive (geometric)
+ * stages    the number of temperatures of geometric schedule (200)
+ * length    Monte Carlo steps at each temperature of geometric schedule (1000)
+ * cooling   cooling rate of geometric schedule (0.9)
+ * proposal  uniform or neighbour (uniform)
+ * quench    local search at the end, true or false (false)
+ * time      time budget in milliseconds for the schedule and the quench
+ *           (none)
+ * distanceMemory
+ *           memory for the distance matrix or cache in megabytes (256);
+ *           the rest of the job, such as the circuit and neighbour lists,
+ *           is not counted
+ * tour      file for the final circuit in the binary format (none)
+ * </pre>
+ * Jobs run on a fixed number of workers. An instance is loaded once with its
+ * neighbour lists and distance cache, and later jobs on it run on replicas
+ * sharing them. The summary of each job is appended to the results file as
+ * soon as the job finishes.
+ *
+ * @author tadaki
+ */
+public class BatchRunner {
+
+    public static final Set<String> KEYS = Set.of("name", "instance", "seed",
+            "start", "schedule", "stages", "length", "cooling", "proposal", "quench",
+            "time", "distanceMemory", "tour");
+    public static final String HEADER
+            = "# name instance seed cities length best stages millis status";
+    private final int numWorker;//the number of jobs run at a time
+    private final int maxCached;//the number of instances kept
+    private final Map<String, FutureTask<Simulation>> cache;
+
+    /**
+     * Job read from a line of a job file
+     */
+    public record Job(int line, Map<String, String> param) {
+
+        String get(String key, String defaultValue) {
+            return param.getOrDefault(key, defaultValue);
+        }
+
+        String name() {
+            return get("name", get("instance", "") + ":" + line);
+        }
+    }
+
+    private record Summary(String line, boolean failed) {
+
+    }
+
+    /**
+     * @param numWorker the number of jobs run at a time
+     * @param maxCached the number of instances kept for later jobs
+     */
+    public BatchRunner(int numWorker, int maxCached) {
+        this.numWorker = numWorker;
+        this.maxCached = maxCached;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, FutureTask<Simulation>> eldest) {
+                return size() > BatchRunner.this.maxCached;
+            }
+        };
+    }
+
+    /**
+     * Reading a job file
+     *
+     * @param filename
+     * @return jobs in the order of lines
+     * @throws IOException
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static List<Job> readJobs(String filename) throws IOException {
+        List<Job> jobs = Collections.synchronizedList(new ArrayList<>());
+        Map<String, String> defaults = new HashMap<>();
+        try ( BufferedReader in = Simulation.openReader(filename)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                boolean isDefault = line.startsWith("default");
+                if (isDefault) {
+                    line = line.substring("default".length()).strip();
+                }
+                Map<String, String> param = new HashMap<>(defaults);
+                for (String token : line.split("\\s+")) {
+                    int eq = token.indexOf('=');
+                    if (eq <= 0 || !KEYS.contains(token.substring(0, eq))) {
+                        throw new IllegalArgumentException(filename + ":"
+                                + lineNumber + ": illegal entry " + token);
+                    }
+                    param.put(token.substring(0, eq), token.substring(eq + 1));
+                }
+                if (isDefault) {
+                    defaults = param;
+                } else if (!param.containsKey("instance")) {
+                    throw new IllegalArgumentException(filename + ":"
+                            + lineNumber + ": no instance");
+                } else {
+                    jobs.add(new Job(lineNumber, param));
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Running jobs, appending a line to the results file as each finishes
+     *
+     * @param jobs
+     * @param resultFile
+     * @return the number of failed jobs
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public int run(List<Job> jobs, String resultFile)
+            throws IOException, InterruptedException {
+        boolean fresh = !new File(resultFile).exists()
+                || new File(resultFile).length() == 0;
+        ExecutorService pool = Executors.newFixedThreadPool(numWorker);
+        CompletionService<Summary> service = new ExecutorCompletionService<>(pool);
+        int numFailed = 0;
+        try ( PrintStream out = new PrintStream(
+                new FileOutputStream(resultFile, true), true)) {
+            if (fresh) {
+                out.println(HEADER);
+            }
+            jobs.forEach(job -> service.submit(() -> runJob(job)));
+            for (int k = 0; k < jobs.size(); k++) {
+                Summary summary;
+                try {
+                    summary = service.take().get();
+                } catch (ExecutionException e) {
+                    summary = new Summary("# " + e.getCause(), true);
+                }
+                if (summary.failed()) {
+                    numFailed++;
+                }
+                out.println(summary.line());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return numFailed;
+    }
+
+    /**
+     * Running a job
+     *
+     * @return summary; failures are reported in it rather than thrown
+     */
+    private Summary runJob(Job job) {
+        long start = System.nanoTime();
+        try {
+            long timeBudget = Long.parseLong(job.get("time", "-1"));
+            long deadline = (timeBudget < 0) ? Long.MAX_VALUE
+                    : start + timeBudget * 1000000L;
+            BooleanSupplier stop = () -> System.nanoTime() > deadline;
+            long seed = Long.parseLong(job.get("seed", "48"));
+            Simulation sim = new Simulation(base(job), new Xoroshiro128(seed));
+            sim.setProposal(Simulation.Proposal.valueOf(
+                    job.get("proposal", "uniform").toUpperCase()));
+            int numStage;
+            String schedule = job.get("schedule", "geometric");
+            switch (schedule) {
+                case "geometric" -> {
+                    int stages = Integer.parseInt(job.get("stages", "200"));
+                    numStage = sim.anneal(stages,
+                            Integer.parseInt(job.get("length", "1000")),
+                            Double.parseDouble(job.get("cooling", "0.9")),
+                            stop).size();
+                }
+                case "adaptive" ->
+                    numStage = new AdaptiveSchedule().run(sim, stop).size();
+                default ->
+                    throw new IllegalArgumentException(
+                            "unknown schedule " + schedule);
+            }
+            boolean stopped = stop.getAsBoolean();
+            if (Boolean.parseBoolean(job.get("quench", "false")) && !stopped) {
+                stopped = !sim.quench(stop);
+            }
+            if (job.param().containsKey("tour")) {
+                BinaryFormat.writeTour(job.get("tour", ""), sim.getTour().order());
+            }
+            return new Summary(String.join(" ", job.name(),
+                    job.get("instance", ""), String.valueOf(seed), String.valueOf(sim.getTour().numCity()),
+                    String.valueOf(sim.getPathLength()),
+                    String.valueOf(Math.min(sim.getBestLength(),
+                            sim.getPathLength())),
+                    String.valueOf(numStage), String.valueOf(millis(start)),
+                    stopped ? "stopped" : "completed"), false);
+        } catch (IOException | RuntimeException | InterruptedException
+                | ExecutionException e) {
+            return new Summary(String.join(" ", job.name(),
+                    job.get("instance", ""), job.get("seed", "48"), "-", "-",
+                    "-", "-", String.valueOf(millis(start)),
+                    "failed: " + e.toString().replace('\n', ' ')), true);
+        }
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000L;
+    }
+
+    /**
+     * Simulation of the instance of a job, loaded by the first job using it
+     */
+    private Simulation base(Job job)
+            throws InterruptedException, ExecutionException {
+        String filename = job.get("instance", "");
+        long budget = Long.parseLong(job.get("distanceMemory", "256")) << 20;
+        String start = job.get("start", "input");
+        TourBuilder builder = builder(start);
+        String key = filename + "@" + budget + "/" + start;
+        FutureTask<Simulation> task;
+        boolean owner = false;
+        synchronized (cache) {
+            task = cache.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> new Simulation(load(filename),
+                        new Xoroshiro128(0L), budget, UnaryOperator.identity(),
+                        builder));
+                cache.put(key, task);
+                owner = true;
+            }
+        }
+        if (owner) {
+            task.run();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            synchronized (cache) {//loading is retried by a later job
+                cache.remove(key, task);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Construction heuristic of the initial circuit
+     *
+     * @param start name given by the key start
+     * @return null for the input order
+     */
+    static TourBuilder builder(String start) {
+        return switch (start) {
+            case "input" ->
+                null;
+            case "nearest" ->
+                new NearestNeighbourBuilder();
+            case "greedy" ->
+                new GreedyEdgeBuilder();
+            case "hilbert" ->
+                new HilbertCurveBuilder();
+            case "christofides" ->
+                new ChristofidesBuilder();
+            default ->
+                throw new IllegalArgumentException("unknown start " + start);
+        };
+    }
+
+    /**
+     * Reading an instance in the format given by the file name
+     *
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    public static Instance load(String filename) throws IOException {
+        if (filename.endsWith(".tsp")) {
+            return TsplibReader.read(filename);
+        }
+        if (filename.endsWith(".bin")) {
+            return BinaryFormat.readInstance(filename);
+        }
+        return InstanceReader.read(filename);
+    }
+
+    /**
+     * @param args job file, results file and the number of workers
+     * @throws java.io.IOException
+     * @throws java.lang.InterruptedException
+     */
+    public static void main(String[] args)
+            throws IOException, InterruptedException {
+        String jobFile = (args.length > 0) ? args[0] : "jobs.txt";
+        String resultFile = (args.length > 1) ? args[1]
+                : BatchRunner.class.getSimpleName() + ".txt";
+        int numWorker = (args.length > 2) ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        BatchRunner runner = new BatchRunner(numWorker, 4);
+        int numFailed = runner.run(readJobs(jobFile), resultFile);
+        if (numFailed > 0) {
+            System.err.println(numFailed + " jobs failed");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary files for instances and tours
+ *
+ * All values are little endian. An instance file has the header
+ * (magic "TSPI", version, metric, reserved, n) of 24 bytes followed by n x
+ * coordinates and n y coordinates as doubles. A tour file has the header
+ * (magic "TSPT", version, n) of 16 bytes followed by n city numbers as
+ * ints. A trace file has the header (magic "TSPR", version) of 8 bytes
+ * followed by records of Monte Carlo steps as a long and path length and
+ * temperature as doubles. Files are read by memory mapping.
+ *
+ * @author tadaki
+ */
+public class BinaryFormat {
+
+    public static final int INSTANCE_MAGIC = 0x49505354;//"TSPI"
+    public static final int TOUR_MAGIC = 0x54505354;//"TSPT"
+    public static final int TRACE_MAGIC = 0x52505354;//"TSPR"
+    public static final int VERSION = 1;
+    private static final int INSTANCE_HEADER = 24;
+    private static final int TOUR_HEADER = 16;
+    private static final int TRACE_HEADER = 8;
+    private static final int TRACE_RECORD = 24;
+    //largest region mapped at once
+    private static final long CHUNK = 1L << 30;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Writing an instance
+     *
+     * @param filename
+     * @param instance
+     * @throws IOException
+     */
+    public static void writeInstance(String filename, Instance instance)
+            throws IOException {
+        if (instance.getWeights() != null) {
+            throw new IOException(filename
+                    + ": explicit distances cannot be stored");
+        }
+        int n = instance.numCity();
+        try ( FileChannel ch = openWrite(filename)) {
+            ByteBuffer header = ByteBuffer.allocate(INSTANCE_HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(INSTANCE_MAGIC).putInt(VERSION)
+                    .putInt(instance.getMetric().ordinal()).putInt(0)
+                    .putLong(n).flip();
+            writeFully(ch, header);
+            writeDoubles(ch, instance.getX());
+            writeDoubles(ch, instance.getY());
+        }
+    }
+
+    /**
+     * Reading an instance
+     *
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    public static Instance readInstance(String filename) throws IOException {
+        try ( FileChannel ch = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            ByteBuffer header = map(ch, 0, INSTANCE_HEADER);
+            checkMagic(header.getInt(), INSTANCE_MAGIC, filename);
+            checkVersion(header.getInt(), filename);
+            int m = header.getInt();
+            header.getInt();
+            int n = checkLength(header.getLong(), filename);
+            if (m < 0 || m >= Metric.values().length) {
+                throw new IOException(filename + ": unknown metric " + m);
+            }
+            if (ch.size() < INSTANCE_HEADER + 16L * n) {
+                throw new IOException(filename + ": truncated");
+            }
+            double x[] = readDoubles(ch, INSTANCE_HEADER, n);
+            double y[] = readDoubles(ch, INSTANCE_HEADER + 8L * n, n);
+            return new Instance(x, y, Metric.values()[m]);
+        }
+    }
+
+    /**
+     * Writing a tour
+     *
+     * @param filename
+     * @param order sequence of cities
+     * @throws IOException
+     */
+    public static void writeTour(String filename, int order[])
+            throws IOException {
+        try ( FileChannel ch = openWrite(filename)) {
+            ByteBuffer header = ByteBuffer.allocate(TOUR_HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(TOUR_MAGIC).putInt(VERSION).putLong(order.length)
+                    .flip();
+            writeFully(ch, header);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int i = 0;
+            while (i < order.length) {
+                buffer.clear();
+                int m = Math.min(order.length - i, buffer.capacity() / 4);
+                buffer.asIntBuffer().put(order, i, m);
+                buffer.limit(4 * m);
+                writeFully(ch, buffer);
+                i += m;
+            }
+        }
+    }
+
+    /**
+     * Reading a tour
+     *
+     * @param filename
+     * @return sequence of cities
+     * @throws IOException
+     */
+    public static int[] readTour(String filename) throws IOException {
+        try ( FileChannel ch = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            ByteBuffer header = map(ch, 0, TOUR_HEADER);
+            checkMagic(header.getInt(), TOUR_MAGIC, filename);
+            checkVersion(header.getInt(), filename);
+            int n = checkLength(header.getLong(), filename);
+            if (ch.size() < TOUR_HEADER + 4L * n) {
+                throw new IOException(filename + ": truncated");
+            }
+            int order[] = new int[n];
+            int i = 0;
+            while (i < n) {
+                int m = (int) Math.min(n - i, CHUNK / 4);
+                map(ch, TOUR_HEADER + 4L * i, 4L * m).asIntBuffer()
+                        .get(order, i, m);
+                i += m;
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Opening a trace file and writing its header
+     *
+     * @param filename
+     * @return channel positioned for records
+     * @throws IOException
+     */
+    static FileChannel createTrace(String filename) throws IOException {
+        FileChannel ch = openWrite(filename);
+        ByteBuffer header = ByteBuffer.allocate(TRACE_HEADER)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(TRACE_MAGIC).putInt(VERSION).flip();
+        writeFully(ch, header);
+        return ch;
+    }
+
+    /**
+     * Reading a trace, passing its records to a sink
+     *
+     * An incomplete record at the end, left by an interrupted run, is
+     * ignored.
+     *
+     * @param filename
+     * @param sink
+     * @return the number of records
+     * @throws IOException
+     */
+    public static long readTrace(String filename, TraceSink sink)
+            throws IOException {
+        try ( FileChannel ch = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            if (ch.size() < TRACE_HEADER) {
+                throw new IOException(filename + ": truncated");
+            }
+            ByteBuffer header = map(ch, 0, TRACE_HEADER);
+            checkMagic(header.getInt(), TRACE_MAGIC, filename);
+            checkVersion(header.getInt(), filename);
+            long numRecord = (ch.size() - TRACE_HEADER) / TRACE_RECORD;
+            long perChunk = CHUNK / TRACE_RECORD;
+            for (long k = 0; k < numRecord; k += perChunk) {
+                long m = Math.min(numRecord - k, perChunk);
+                ByteBuffer b = map(ch, TRACE_HEADER + k * TRACE_RECORD,
+                        m * TRACE_RECORD);
+                for (long i = 0; i < m; i++) {
+                    sink.accept(b.getLong(), b.getDouble(), b.getDouble());
+                }
+            }
+            return numRecord;
+        }
+    }
+
+    static FileChannel openWrite(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        return FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static MappedByteBuffer map(FileChannel ch, long position,
+            long size) throws IOException {
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, position,
+                size);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+
+    private static double[] readDoubles(FileChannel ch, long position, int n)
+            throws IOException {
+        double d[] = new double[n];
+        int i = 0;
+        while (i < n) {
+            int m = (int) Math.min(n - i, CHUNK / 8);
+            map(ch, position + 8L * i, 8L * m).asDoubleBuffer().get(d, i, m);
+            i += m;
+        }
+        return d;
+    }
+
+    private static void writeDoubles(FileChannel ch, double d[])
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int i = 0;
+        while (i < d.length) {
+            buffer.clear();
+            int m = Math.min(d.length - i, buffer.capacity() / 8);
+            buffer.asDoubleBuffer().put(d, i, m);
+            buffer.limit(8 * m);
+            writeFully(ch, buffer);
+            i += m;
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer b)
+            throws IOException {
+        while (b.hasRemaining()) {
+            ch.write(b);
+        }
+    }
+
+    private static void checkMagic(int magic, int expected, String filename)
+            throws IOException {
+        if (magic != expected) {
+            throw new IOException(filename + ": bad magic number");
+        }
+    }
+
+    private static void checkVersion(int version, String filename)
+            throws IOException {
+        if (version != VERSION) {
+            throw new IOException(filename + ": unsupported version " + version);
+        }
+    }
+
+    private static int checkLength(long n, String filename) throws IOException {
+        if (n < 0 || n > Integer.MAX_VALUE - 8) {
+            throw new IOException(filename + ": bad length " + n);
+        }
+        return (int) n;
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of distances
+ *
+ * Distances from each city to its pinned neighbours are stored in a fixed
+ * table and never evicted. Other distances go to a direct-mapped cache,
+ * where a new entry overwrites the old one in the same slot. Not thread
+ * safe: each simulation has its own cache.
+ *
+ * @author tadaki
+ */
+public class CachedDistance implements DistanceProvider {
+
+    //upper limit of the number of cache entries
+    public static final int MAX_CACHE_SIZE = 1 << 26;
+    private final DistanceProvider direct;
+    private final int k;//the number of pinned neighbours per city
+    private final int pinned[];//pinned neighbours: k entries per city
+    private final float pinnedDist[];
+    private final long keys[];//pair of cities stored in each slot
+    private final float values[];
+    private final int mask;
+
+    /**
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param pinned pinned neighbours, k entries per city
+     * @param k the number of pinned neighbours per city
+     * @param cacheSize the number of cache entries (power of two)
+     */
+    public CachedDistance(double x[], double y[], int pinned[], int k,
+            int cacheSize) {
+        this(new DirectDistance(x, y), x.length, pinned, k, cacheSize);
+    }
+
+    /**
+     * @param source distances to be cached
+     * @param n the number of cities
+     * @param pinned pinned neighbours, k entries per city
+     * @param k the number of pinned neighbours per city
+     * @param cacheSize the number of cache entries (power of two)
+     */
+    public CachedDistance(DistanceProvider source, int n, int pinned[], int k,
+            int cacheSize) {
+        direct = source;
+        this.k = k;
+        this.pinned = pinned;
+        pinnedDist = new float[n * k];
+        for (int a = 0; a < n; a++) {
+            for (int j = 0; j < k; j++) {
+                pinnedDist[a * k + j]
+                        = (float) direct.distance(a, pinned[a * k + j]);
+            }
+        }
+        keys = new long[cacheSize];
+        values = new float[cacheSize];
+        Arrays.fill(keys, -1L);
+        mask = cacheSize - 1;
+    }
+
+    /**
+     * Cache sharing the pinned table with the original
+     *
+     * @param original
+     */
+    private CachedDistance(CachedDistance original) {
+        direct = original.direct;
+        k = original.k;
+        pinned = original.pinned;
+        pinnedDist = original.pinnedDist;
+        keys = new long[original.keys.length];
+        values = new float[original.values.length];
+        Arrays.fill(keys, -1L);
+        mask = original.mask;
+    }
+
+    /**
+     * New cache sharing the pinned table
+     *
+     * @return
+     */
+    @Override
+    public DistanceProvider share() {
+        return new CachedDistance(this);
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        int base = a * k;
+        for (int j = 0; j < k; j++) {
+            if (pinned[base + j] == b) {
+                return pinnedDist[base + j];
+            }
+        }
+        if (a == b) {
+            return 0.;
+        }
+        long key = (a < b) ? ((long) a << 32) | b : ((long) b << 32) | a;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        if (keys[slot] == key) {
+            return values[slot];
+        }
+        float d = (float) direct.distance(a, b);
+        keys[slot] = key;
+        values[slot] = d;
+        return d;
+    }
+
+    @Override
+    public double exchangeDelta(int a, int b, int c, int d) {
+        return distance(a, c) + distance(b, d)
+                - distance(a, b) - distance(c, d);
+    }
+
+    /**
+     * Memory required for the pinned table
+     *
+     * @param n the number of cities
+     * @param k the number of pinned neighbours per city
+     * @return bytes
+     */
+    public static long pinnedBytes(int n, int k) {
+        return 8L * n * k;
+    }
+
+    /**
+     * The largest cache size fitting in the given memory
+     *
+     * @param bytes
+     * @return the number of entries (power of two)
+     */
+    public static int cacheSize(long bytes) {
+        long entries = Math.min(bytes / 12, MAX_CACHE_SIZE);
+        return Math.max(1, Integer.highestOneBit((int) entries));
+    }
+}
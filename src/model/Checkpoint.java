@@ -0,0 +1,149 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * Snapshot of the state of a simulation
+ *
+ * The file starts with the magic "TSPC" and a version, followed by the
+ * schedule position, temperature, path length, best length, proposal mode,
+ * the serialized random number generator and the sequence of cities.
+ * Files of version 1, without the best length, are still read.
+ *
+ * @author tadaki
+ */
+public record Checkpoint(int stage, int stageStep, double temperature,
+        double pathLength, double bestLength, Simulation.Proposal proposal,
+        byte[] randomState, int[] order) {
+
+    public static final int MAGIC = 0x54535043;//"TSPC"
+    public static final int VERSION = 2;
+
+    /**
+     * Writing to a file
+     *
+     * The file is replaced atomically, so that an interrupted write leaves
+     * the previous checkpoint intact.
+     *
+     * @param filename
+     * @throws IOException
+     */
+    public void write(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        Path tmp = Paths.get(filename + ".tmp");
+        try ( DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp.toFile()),
+                        1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stage);
+            out.writeInt(stageStep);
+            out.writeDouble(temperature);
+            out.writeDouble(pathLength);
+            out.writeDouble(bestLength);
+            out.writeInt(proposal.ordinal());
+            out.writeInt(randomState.length);
+            out.write(randomState);
+            out.writeInt(order.length);
+            for (int c : order) {
+                out.writeInt(c);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reading from a file
+     *
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    public static Checkpoint read(String filename) throws IOException {
+        try ( DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename),
+                        1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(filename + ": bad magic number");
+            }
+            int version = in.readInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException(filename + ": unsupported version "
+                        + version);
+            }
+            int stage = in.readInt();
+            int stageStep = in.readInt();
+            double temperature = in.readDouble();
+            double pathLength = in.readDouble();
+            //version 1 kept no best length
+            double bestLength = (version == 1) ? pathLength : in.readDouble();
+            int p = in.readInt();
+            if (p < 0 || p >= Simulation.Proposal.values().length) {
+                throw new IOException(filename + ": unknown proposal " + p);
+            }
+            byte randomState[] = new byte[in.readInt()];
+            in.readFully(randomState);
+            int order[] = new int[in.readInt()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = in.readInt();
+            }
+            return new Checkpoint(stage, stageStep, temperature, pathLength,
+                    bestLength, Simulation.Proposal.values()[p], randomState,
+                    order);
+        }
+    }
+
+    /**
+     * Serialized state of a random number generator
+     *
+     * @param random java.util.Random, Xoroshiro128 or another serializable
+     * generator
+     * @return
+     * @throws IllegalArgumentException if the generator is not serializable
+     */
+    public static byte[] saveRandom(RandomGenerator random) {
+        if (!(random instanceof Serializable)) {
+            throw new IllegalArgumentException(random.getClass().getName()
+                    + " is not serializable");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        } catch (IOException e) {//not thrown for byte arrays
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Random number generator restored from the serialized state
+     *
+     * @return
+     * @throws IOException
+     */
+    public RandomGenerator restoreRandom() throws IOException {
+        try ( ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(randomState))) {
+            return (RandomGenerator) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("bad random state", e);
+        }
+    }
+}
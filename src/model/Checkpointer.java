@@ -0,0 +1,108 @@
+package model;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodic checkpoints written in the background
+ *
+ * The annealing thread only copies the state; the file is written by a
+ * separate thread. If the previous write has not finished, the snapshot
+ * is skipped rather than waited for.
+ *
+ * @author tadaki
+ */
+public class Checkpointer implements AutoCloseable {
+
+    private final String filename;
+    private final long interval;//nanoseconds
+    private long nextTime;
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+    private final ExecutorService writer;
+    private volatile IOException lastError = null;
+
+    /**
+     * @param filename checkpoint file
+     * @param intervalMillis interval between checkpoints (milliseconds)
+     */
+    public Checkpointer(String filename, long intervalMillis) {
+        this.filename = filename;
+        interval = intervalMillis * 1000000L;
+        nextTime = System.nanoTime() + interval;
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "checkpoint-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Taking a checkpoint if the interval has passed
+     *
+     * Called from the annealing thread between Monte Carlo steps.
+     *
+     * @param sim
+     */
+    public void offer(Simulation sim) {
+        long now = System.nanoTime();
+        if (now < nextTime) {
+            return;
+        }
+        nextTime = now + interval;
+        if (!writing.compareAndSet(false, true)) {//previous write running
+            return;
+        }
+        Checkpoint cp = sim.checkpoint();
+        writer.execute(() -> {
+            try {
+                cp.write(filename);
+            } catch (IOException e) {
+                lastError = e;
+                Logger.getLogger(Checkpointer.class.getName())
+                        .log(Level.WARNING, filename, e);
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Error of the last failed write, or null
+     *
+     * @return
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Waiting for the pending write and stopping the writer
+     *
+     * If interrupted, the writer is stopped and the interrupt status is set
+     * again.
+     *
+     * @throws IOException if the pending write has not finished within a
+     * minute
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                throw new IOException(filename
+                        + ": pending checkpoint not written within a minute");
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+            Logger.getLogger(Checkpointer.class.getName())
+                    .log(Level.WARNING, filename
+                            + ": interrupted while waiting for the writer", e);
+        }
+    }
+}
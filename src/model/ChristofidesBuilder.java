@@ -0,0 +1,172 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Circuit by a simplified Christofides construction
+ *
+ * A spanning tree is built by Kruskal's method over the edges to the
+ * neighbours; components left apart are chained by nearest representatives.
+ * Cities of odd degree are matched greedily, first by candidate edges and
+ * then by nearest partners, instead of by a minimum-weight perfect
+ * matching. The Euler circuit of the tree and the matching is shortcut at
+ * cities already visited. The guarantee of the exact method is lost, but
+ * the cost stays near O(n log n).
+ *
+ * @author tadaki
+ */
+public class ChristofidesBuilder implements TourBuilder {
+
+    /**
+     * Tree and matching edges, possibly parallel
+     */
+    private static final class Multigraph {
+
+        final int edgeA[];//ends of edges
+        final int edgeB[];
+        final int degree[];
+        int numEdge = 0;
+
+        Multigraph(int n) {
+            edgeA = new int[n + n / 2];
+            edgeB = new int[n + n / 2];
+            degree = new int[n];
+        }
+
+        void add(int a, int b) {
+            edgeA[numEdge] = a;
+            edgeB[numEdge] = b;
+            numEdge++;
+            degree[a]++;
+            degree[b]++;
+        }
+    }
+
+    @Override
+    public int[] build(Instance instance, NeighbourList neighbours,
+            DistanceProvider dist) {
+        double x[] = instance.getX();
+        double y[] = instance.getY();
+        int n = x.length;
+        int k = neighbours.getK();
+        Multigraph g = new Multigraph(n);
+        long edges[] = GreedyEdgeBuilder.sortedEdges(neighbours, dist, n);
+        //spanning tree over candidate edges
+        int parent[] = new int[n];
+        for (int c = 0; c < n; c++) {
+            parent[c] = c;
+        }
+        for (long e : edges) {
+            int i = (int) e;
+            int a = i / k;
+            int b = neighbours.get(a, i % k);
+            int ra = GreedyEdgeBuilder.find(parent, a);
+            int rb = GreedyEdgeBuilder.find(parent, b);
+            if (ra != rb) {
+                parent[ra] = rb;
+                g.add(a, b);
+            }
+        }
+        //chaining the remaining components
+        int root[] = new int[n];
+        int numRoot = 0;
+        for (int c = 0; c < n; c++) {
+            if (parent[c] == c) {
+                root[numRoot++] = c;
+            }
+        }
+        if (numRoot > 1) {
+            CityGrid grid = new CityGrid(x, y, Arrays.copyOf(root, numRoot));
+            int c = root[0];
+            grid.remove(c);
+            for (int b = grid.nearest(x[c], y[c]); b >= 0;
+                    b = grid.nearest(x[c], y[c])) {
+                grid.remove(b);
+                g.add(c, b);
+                c = b;
+            }
+        }
+        //greedy matching of cities of odd degree
+        boolean odd[] = new boolean[n];
+        for (int c = 0; c < n; c++) {
+            odd[c] = (g.degree[c] % 2 == 1);
+        }
+        for (long e : edges) {
+            int i = (int) e;
+            int a = i / k;
+            int b = neighbours.get(a, i % k);
+            if (odd[a] && odd[b]) {
+                odd[a] = false;
+                odd[b] = false;
+                g.add(a, b);
+            }
+        }
+        int numOdd = 0;
+        for (int c = 0; c < n; c++) {
+            if (odd[c]) {
+                root[numOdd++] = c;
+            }
+        }
+        CityGrid grid = new CityGrid(x, y, Arrays.copyOf(root, numOdd));
+        for (int i = 0; i < numOdd; i++) {
+            int a = root[i];
+            if (grid.contains(a)) {
+                grid.remove(a);
+                int b = grid.nearest(x[a], y[a]);
+                grid.remove(b);
+                g.add(a, b);
+            }
+        }
+        return shortcut(g);
+    }
+
+    /**
+     * Euler circuit by Hierholzer's method, skipping visited cities
+     *
+     * @param g connected, all degrees even
+     * @return sequence of cities
+     */
+    private static int[] shortcut(Multigraph g) {
+        int n = g.degree.length;
+        int numEdge = g.numEdge;
+        int edgeA[] = g.edgeA;
+        int edgeB[] = g.edgeB;
+        //adjacency of the multigraph
+        int start[] = new int[n + 1];
+        for (int c = 0; c < n; c++) {
+            start[c + 1] = start[c] + g.degree[c];
+        }
+        int fill[] = Arrays.copyOf(start, n);
+        int adjacent[] = new int[2 * numEdge];//edges at each city
+        for (int e = 0; e < numEdge; e++) {
+            adjacent[fill[edgeA[e]]++] = e;
+            adjacent[fill[edgeB[e]]++] = e;
+        }
+        boolean used[] = new boolean[numEdge];
+        boolean visited[] = new boolean[n];
+        int order[] = new int[n];
+        int numVisited = 0;
+        int stack[] = new int[numEdge + 1];
+        int top = 0;
+        stack[top++] = 0;
+        int next[] = Arrays.copyOf(start, n);//next edge to try at each city
+        while (top > 0) {
+            int c = stack[top - 1];
+            while (next[c] < start[c + 1] && used[adjacent[next[c]]]) {
+                next[c]++;
+            }
+            if (next[c] < start[c + 1]) {
+                int e = adjacent[next[c]++];
+                used[e] = true;
+                stack[top++] = (edgeA[e] == c) ? edgeB[e] : edgeA[e];
+            } else {
+                top--;
+                if (!visited[c]) {
+                    visited[c] = true;
+                    order[numVisited++] = c;
+                }
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,161 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of cities with removal and nearest-city queries
+ *
+ * Used by the tour builders to find the nearest city not yet used. Cities
+ * are sorted into cells with about two cities per cell; a removed city is
+ * swapped to the end of its cell. Distances are measured by coordinates.
+ *
+ * @author tadaki
+ */
+final class CityGrid {
+
+    private final double x[];//x coordinates of all cities
+    private final double y[];//y coordinates of all cities
+    private final double minX, minY;
+    private final double cell;//side of a cell
+    private final int gx, gy;//the number of cells in each direction
+    private final int start[];//first entry of each cell in member
+    private final int count[];//the number of cities left in each cell
+    private final int member[];//cities sorted by cell
+    private final int cellOf[];//cell of each city
+    private final int position[];//entry of each city in member, -1 if absent
+    private int size;//the number of cities left
+
+    /**
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param cities cities put in the grid, or null for all
+     */
+    CityGrid(double x[], double y[], int cities[]) {
+        this.x = x;
+        this.y = y;
+        int n = x.length;
+        size = (cities == null) ? n : cities.length;
+        double x0 = x[0], x1 = x[0], y0 = y[0], y1 = y[0];
+        for (int i = 1; i < n; i++) {
+            x0 = Math.min(x0, x[i]);
+            x1 = Math.max(x1, x[i]);
+            y0 = Math.min(y0, y[i]);
+            y1 = Math.max(y1, y[i]);
+        }
+        minX = x0;
+        minY = y0;
+        double w = Math.max(x1 - x0, y1 - y0);
+        if (w == 0.) {
+            w = 1.;
+        }
+        int m = Math.max(size, 1);
+        //cell size for about two cities per cell
+        cell = Math.max(Math.sqrt((x1 - x0) * (y1 - y0) * 2. / m), w * 2. / m);
+        gx = (int) ((x1 - x0) / cell) + 1;
+        gy = (int) ((y1 - y0) / cell) + 1;
+        start = new int[gx * gy + 1];
+        count = new int[gx * gy];
+        member = new int[size];
+        cellOf = new int[n];
+        position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < size; i++) {
+            int c = (cities == null) ? i : cities[i];
+            cellOf[c] = cellIndex(x[c], y[c]);
+            count[cellOf[c]]++;
+        }
+        for (int c = 0; c < gx * gy; c++) {
+            start[c + 1] = start[c] + count[c];
+        }
+        int fill[] = start.clone();
+        for (int i = 0; i < size; i++) {
+            int c = (cities == null) ? i : cities[i];
+            position[c] = fill[cellOf[c]]++;
+            member[position[c]] = c;
+        }
+    }
+
+    private int cellIndex(double px, double py) {
+        int cx = Math.min(gx - 1, Math.max(0, (int) ((px - minX) / cell)));
+        int cy = Math.min(gy - 1, Math.max(0, (int) ((py - minY) / cell)));
+        return cy * gx + cx;
+    }
+
+    boolean contains(int c) {
+        return position[c] >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removing a city in the grid
+     *
+     * @param c
+     */
+    void remove(int c) {
+        int p = position[c];
+        int cl = cellOf[c];
+        int last = start[cl] + count[cl] - 1;
+        int d = member[last];
+        member[p] = d;
+        position[d] = p;
+        member[last] = c;
+        position[c] = -1;
+        count[cl]--;
+        size--;
+    }
+
+    /**
+     * Nearest city left in the grid
+     *
+     * Rings of cells are searched until no closer city can be found.
+     *
+     * @param px
+     * @param py
+     * @return the nearest city, -1 if the grid is empty
+     */
+    int nearest(double px, double py) {
+        if (size == 0) {
+            return -1;
+        }
+        int c0 = cellIndex(px, py);
+        int cx = c0 % gx;
+        int cy = c0 / gx;
+        int best = -1;
+        double bestD = Double.POSITIVE_INFINITY;
+        int maxR = Math.max(gx, gy);
+        for (int r = 0; r <= maxR; r++) {
+            //cells at ring r are at least (r-1)*cell away
+            double bound = (r - 1) * cell;
+            if (best >= 0 && bestD <= bound * bound) {
+                break;
+            }
+            for (int iy = cy - r; iy <= cy + r; iy++) {
+                if (iy < 0 || iy >= gy) {
+                    continue;
+                }
+                boolean edge = (iy == cy - r || iy == cy + r);
+                int step = edge ? 1 : 2 * r;
+                for (int ix = cx - r; ix <= cx + r; ix += Math.max(step, 1)) {
+                    if (ix < 0 || ix >= gx) {
+                        continue;
+                    }
+                    int c = iy * gx + ix;
+                    for (int m = start[c]; m < start[c] + count[c]; m++) {
+                        int b = member[m];
+                        double dx = px - x[b];
+                        double dy = py - y[b];
+                        double d = dx * dx + dy * dy;
+                        if (d < bestD) {
+                            bestD = d;
+                            best = b;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
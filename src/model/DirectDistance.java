@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * Euclidean distance computed on the fly
+ *
+ * @author tadaki
+ */
+public class DirectDistance implements DistanceProvider {
+
+    private final double x[];
+    private final double y[];
+
+    public DirectDistance(double x[], double y[]) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        double dx = x[a] - x[b];
+        double dy = y[a] - y[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public double exchangeDelta(int a, int b, int c, int d) {
+        return distance(a, c) + distance(b, d)
+                - distance(a, b) - distance(c, d);
+    }
+}
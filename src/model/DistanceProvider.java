@@ -0,0 +1,154 @@
+package model;
+
+/**
+ * Distance between cities numbered 0..n-1
+ *
+ * @author tadaki
+ */
+public interface DistanceProvider {
+
+    //default memory budget for storing distances (bytes)
+    public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+    //the number of pinned neighbours per city in the cache
+    public static final int NUM_PINNED = 2;
+
+    /**
+     * Distance between two cities
+     *
+     * @param a
+     * @param b
+     * @return
+     */
+    public double distance(int a, int b);
+
+    /**
+     * Change of length when edges (a,b) and (c,d) are replaced by (a,c) and
+     * (b,d)
+     *
+     * Each provider overrides this with the same formula, so that the four
+     * distances are inlined in its own copy. A circuit used with many kinds
+     * of providers in one JVM then pays one dispatch instead of four.
+     *
+     * @param a
+     * @param b
+     * @param c
+     * @param d
+     * @return
+     */
+    public default double exchangeDelta(int a, int b, int c, int d) {
+        return distance(a, c) + distance(b, d)
+                - distance(a, b) - distance(c, d);
+    }
+
+    /**
+     * Provider for use in another thread
+     *
+     * Immutable providers return themselves.
+     *
+     * @return
+     */
+    public default DistanceProvider share() {
+        return this;
+    }
+
+    /**
+     * Distance computed on the fly
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param metric
+     * @return
+     */
+    public static DistanceProvider onTheFly(double x[], double y[],
+            Metric metric) {
+        return MetricDistance.of(x, y, metric);
+    }
+
+    /**
+     * Selecting the strategy for an instance
+     *
+     * An explicit matrix of the instance is used as it is.
+     *
+     * @param instance
+     * @param neighbours neighbours to be pinned
+     * @param budget memory budget (bytes)
+     * @return
+     */
+    public static DistanceProvider select(Instance instance,
+            NeighbourList neighbours, long budget) {
+        if (instance.getWeights() != null) {
+            return instance.getWeights();
+        }
+        return select(instance.getX(), instance.getY(), instance.getMetric(),
+                neighbours, budget);
+    }
+
+    /**
+     * Selecting the strategy from the number of cities and the memory budget
+     *
+     * The full matrix is used if it fits in the budget. Otherwise distances
+     * are cached, with the distances to the neighbours pinned. If even the
+     * pinned table does not fit, distances are computed on the fly.
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param metric
+     * @param neighbours neighbours to be pinned, or null for the neighbours
+     * along the initial order
+     * @param budget memory budget (bytes)
+     * @return
+     */
+    public static DistanceProvider select(double x[], double y[],
+            Metric metric, NeighbourList neighbours, long budget) {
+        int n = x.length;
+        DistanceProvider direct = onTheFly(x, y, metric);
+        if (n <= MatrixDistance.MAX_CITY
+                && MatrixDistance.bytes(n) <= budget) {
+            return new MatrixDistance(direct, n);
+        }
+        int k = (neighbours == null) ? NUM_PINNED : neighbours.getK();
+        long pinnedBytes = CachedDistance.pinnedBytes(n, k);
+        if (2 * pinnedBytes <= budget) {
+            int pinned[];
+            if (neighbours == null) {
+                pinned = new int[n * k];
+                for (int i = 0; i < n; i++) {
+                    pinned[i * k] = (i + n - 1) % n;
+                    pinned[i * k + 1] = (i + 1) % n;
+                }
+            } else {
+                pinned = neighbours.toArray();
+            }
+            return new CachedDistance(direct, n, pinned, k,
+                    CachedDistance.cacheSize(budget - pinnedBytes));
+        }
+        return direct;
+    }
+
+    /**
+     * Selecting the strategy for Euclidean distance
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param neighbours neighbours to be pinned, or null for the neighbours
+     * along the initial order
+     * @param budget memory budget (bytes)
+     * @return
+     */
+    public static DistanceProvider select(double x[], double y[],
+            NeighbourList neighbours, long budget) {
+        return select(x, y, Metric.EUCLIDEAN, neighbours, budget);
+    }
+
+    /**
+     * Selecting the strategy with the neighbours along the initial order
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param budget memory budget (bytes)
+     * @return
+     */
+    public static DistanceProvider select(double x[], double y[], long budget) {
+        return select(x, y, null, budget);
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+/**
+ * Move composed of edge exchanges
+ *
+ * Exchanges are recorded while the move is applied, and undone in the
+ * reverse order.
+ *
+ * @author tadaki
+ */
+public abstract class ExchangeMove implements Move {
+
+    private final int journal[] = new int[12];//at most three exchanges
+    private int numExchange = 0;
+
+    /**
+     * Replace edges (a,b) and (c,d) by (a,c) and (b,d), recording it
+     *
+     * @param tour
+     * @param a
+     * @param b
+     * @param c
+     * @param d
+     */
+    protected void exchange(Tour tour, int a, int b, int c, int d) {
+        tour.exchange(a, b, c, d);
+        int k = 4 * numExchange;
+        journal[k] = a;
+        journal[k + 1] = b;
+        journal[k + 2] = c;
+        journal[k + 3] = d;
+        numExchange++;
+    }
+
+    /**
+     * Start recording a new move
+     */
+    protected void clearJournal() {
+        numExchange = 0;
+    }
+
+    @Override
+    public void undo(Tour tour) {
+        for (int i = numExchange - 1; i >= 0; i--) {
+            int k = 4 * i;
+            //(a,c) and (b,d) are replaced back to (a,b) and (c,d)
+            tour.exchange(journal[k], journal[k + 2], journal[k + 1],
+                    journal[k + 3]);
+        }
+        numExchange = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package model;
+
+/**
+ * Distance making given edges strongly attractive
+ *
+ * Used for windows of a larger circuit: each path outside the window is
+ * replaced by an edge joining its ends, which must be kept by the moves.
+ * Such edges are given a large negative length, so that any move removing
+ * one is far uphill. Each city has at most two fixed edges.
+ *
+ * @author tadaki
+ */
+class FixedEdgeDistance implements DistanceProvider {
+
+    private final DistanceProvider base;
+    private final int fixed[];//two partners per city, -1 for none
+    private final double bonus;//length given to fixed edges is -bonus
+
+    /**
+     * @param base distance of other edges
+     * @param fixed partners of fixed edges, two entries per city
+     * @param bonus positive value larger than any change by a move
+     */
+    FixedEdgeDistance(DistanceProvider base, int fixed[], double bonus) {
+        this.base = base;
+        this.fixed = fixed;
+        this.bonus = bonus;
+    }
+
+    private boolean isFixed(int a, int b) {
+        return fixed[2 * a] == b || fixed[2 * a + 1] == b;
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        if (isFixed(a, b)) {
+            return -bonus;
+        }
+        return base.distance(a, b);
+    }
+
+    /**
+     * Left to the base provider unless a fixed edge is involved
+     */
+    @Override
+    public double exchangeDelta(int a, int b, int c, int d) {
+        if (isFixed(a, b) || isFixed(c, d) || isFixed(a, c) || isFixed(b, d)) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+        return base.exchangeDelta(a, b, c, d);
+    }
+
+    @Override
+    public DistanceProvider share() {
+        return new FixedEdgeDistance(base.share(), fixed, bonus);
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Circuit by greedy edge matching
+ *
+ * Candidate edges to the neighbours are taken in the order of length,
+ * skipping those which would give a city a third edge or close a cycle.
+ * The resulting paths are joined into a circuit by going from the end of
+ * each path to the nearest end of another, by coordinates.
+ *
+ * @author tadaki
+ */
+public class GreedyEdgeBuilder implements TourBuilder {
+
+    @Override
+    public int[] build(Instance instance, NeighbourList neighbours,
+            DistanceProvider dist) {
+        double x[] = instance.getX();
+        double y[] = instance.getY();
+        int n = x.length;
+        int k = neighbours.getK();
+        int link[] = new int[2 * n];//two partners per city, -1 for none
+        Arrays.fill(link, -1);
+        int parent[] = new int[n];
+        for (int c = 0; c < n; c++) {
+            parent[c] = c;
+        }
+        for (long e : sortedEdges(neighbours, dist, n)) {
+            int i = (int) e;
+            int a = i / k;
+            int b = neighbours.get(a, i % k);
+            if (link[2 * a + 1] >= 0 || link[2 * b + 1] >= 0) {
+                continue;
+            }
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra == rb) {
+                continue;
+            }
+            parent[ra] = rb;
+            link[(link[2 * a] < 0) ? 2 * a : 2 * a + 1] = b;
+            link[(link[2 * b] < 0) ? 2 * b : 2 * b + 1] = a;
+        }
+        return joinPaths(x, y, link);
+    }
+
+    /**
+     * Edges to the neighbours sorted by length
+     *
+     * An edge from city a to its j-th neighbour is numbered a*k+j, and each
+     * edge appears once. The length, as float bits, is put in the upper bits.
+     *
+     * @param neighbours
+     * @param dist
+     * @param n the number of cities
+     * @return
+     */
+    static long[] sortedEdges(NeighbourList neighbours, DistanceProvider dist,
+            int n) {
+        int k = neighbours.getK();
+        long edge[] = new long[n * k];
+        int m = 0;
+        for (int a = 0; a < n; a++) {
+            for (int j = 0; j < k; j++) {
+                int b = neighbours.get(a, j);
+                if (b < a && isNeighbour(neighbours, b, a)) {
+                    continue;//appears in the list of b
+                }
+                float d = (float) Math.max(dist.distance(a, b), 0.);
+                edge[m++] = ((long) Float.floatToIntBits(d) << 32)
+                        | (a * k + j);
+            }
+        }
+        edge = Arrays.copyOf(edge, m);
+        Arrays.sort(edge);
+        return edge;
+    }
+
+    private static boolean isNeighbour(NeighbourList neighbours, int a, int b) {
+        for (int j = 0; j < neighbours.getK(); j++) {
+            if (neighbours.get(a, j) == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Root in the union-find forest, halving paths
+     */
+    static int find(int parent[], int c) {
+        while (parent[c] != c) {
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+    /**
+     * Joining paths into a circuit
+     *
+     * @param x
+     * @param y
+     * @param link two partners per city, -1 for none; no cycles
+     * @return sequence of cities
+     */
+    static int[] joinPaths(double x[], double y[], int link[]) {
+        int n = x.length;
+        int numEnd = 0;
+        int end[] = new int[n];
+        for (int c = 0; c < n; c++) {
+            if (link[2 * c + 1] < 0) {
+                end[numEnd++] = c;
+            }
+        }
+        CityGrid grid = new CityGrid(x, y, Arrays.copyOf(end, numEnd));
+        int order[] = new int[n];
+        int i = 0;
+        int c = end[0];
+        while (c >= 0) {
+            grid.remove(c);
+            //along the path from c to its other end
+            int prev = -1;
+            while (true) {
+                order[i++] = c;
+                int next = (link[2 * c] != prev) ? link[2 * c] : link[2 * c + 1];
+                if (next < 0) {
+                    break;
+                }
+                prev = c;
+                c = next;
+            }
+            if (grid.contains(c)) {
+                grid.remove(c);
+            }
+            c = grid.nearest(x[c], y[c]);
+        }
+        return order;
+    }
+}
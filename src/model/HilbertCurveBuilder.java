@@ -0,0 +1,73 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Circuit along a Hilbert curve
+ *
+ * Coordinates are mapped to a 2^15 x 2^15 grid and cities are sorted by
+ * their position along the curve. No distances are evaluated, though the
+ * circuit is longer than those of the other builders by 10-20%.
+ *
+ * @author tadaki
+ */
+public class HilbertCurveBuilder implements TourBuilder {
+
+    private static final int ORDER = 15;//bits per coordinate
+
+    @Override
+    public int[] build(Instance instance, NeighbourList neighbours,
+            DistanceProvider dist) {
+        double x[] = instance.getX();
+        double y[] = instance.getY();
+        int n = x.length;
+        double minX = x[0], maxX = x[0], minY = y[0], maxY = y[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double w = Math.max(maxX - minX, maxY - minY);
+        double scale = (w > 0.) ? ((1 << ORDER) - 1) / w : 0.;
+        //position along the curve in the upper bits, city in the lower
+        long key[] = new long[n];
+        for (int i = 0; i < n; i++) {
+            int hx = (int) ((x[i] - minX) * scale);
+            int hy = (int) ((y[i] - minY) * scale);
+            key[i] = (index(hx, hy) << 32) | i;
+        }
+        Arrays.sort(key);
+        int order[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) key[i];
+        }
+        return order;
+    }
+
+    /**
+     * Position of a grid point along the Hilbert curve
+     *
+     * @param hx
+     * @param hy
+     * @return
+     */
+    static long index(int hx, int hy) {
+        long d = 0;
+        for (int s = 1 << (ORDER - 1); s > 0; s >>= 1) {
+            int rx = ((hx & s) != 0) ? 1 : 0;
+            int ry = ((hy & s) != 0) ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {//rotating the quadrant
+                if (rx == 1) {
+                    hx = s - 1 - hx;
+                    hy = s - 1 - hy;
+                }
+                int t = hx;
+                hx = hy;
+                hy = t;
+            }
+        }
+        return d;
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * Moving one city to another place
+ *
+ * @author tadaki
+ */
+public class InsertionMove extends OrOptMove {
+
+    public InsertionMove(NeighbourList neighbours) {
+        super(1, 1, false, neighbours);
+    }
+}
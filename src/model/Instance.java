@@ -0,0 +1,181 @@
+package model;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * Coordinates of cities
+ *
+ * @author tadaki
+ */
+public class Instance {
+
+    private final double x[];//x coordinates
+    private final double y[];//y coordinates
+    private final int malformed[];//line numbers of malformed lines
+    private final int numMalformed;//the number of malformed lines
+    private final Metric metric;//distance function
+    private final MatrixDistance weights;//distances of EXPLICIT, otherwise null
+    //area of cities
+    private double minX, minY, maxX, maxY;
+
+    /**
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param malformed line numbers of malformed lines (may be truncated)
+     * @param numMalformed the number of malformed lines
+     */
+    public Instance(double x[], double y[], int malformed[], int numMalformed) {
+        this(x, y, Metric.EUCLIDEAN, malformed, numMalformed);
+    }
+
+    /**
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param metric distance function
+     * @param malformed line numbers of malformed lines (may be truncated)
+     * @param numMalformed the number of malformed lines
+     */
+    public Instance(double x[], double y[], Metric metric, int malformed[],
+            int numMalformed) {
+        if (metric == Metric.EXPLICIT) {
+            throw new IllegalArgumentException("explicit distances need a matrix");
+        }
+        this.x = x;
+        this.y = y;
+        this.metric = metric;
+        weights = null;
+        this.malformed = malformed;
+        this.numMalformed = numMalformed;
+        evalArea();
+    }
+
+    public Instance(double x[], double y[], Metric metric) {
+        this(x, y, metric, new int[0], 0);
+    }
+
+    public Instance(double x[], double y[]) {
+        this(x, y, Metric.EUCLIDEAN);
+    }
+
+    /**
+     * Instance with explicit distances
+     *
+     * @param x x coordinates, used for drawing only
+     * @param y y coordinates, used for drawing only
+     * @param weights distances between cities
+     */
+    public Instance(double x[], double y[], MatrixDistance weights) {
+        this.x = x;
+        this.y = y;
+        metric = Metric.EXPLICIT;
+        this.weights = weights;
+        malformed = new int[0];
+        numMalformed = 0;
+        evalArea();
+    }
+
+    /**
+     * Instance from a list of points
+     *
+     * @param list
+     * @return
+     */
+    public static Instance fromPoints(List<Point> list) {
+        int n = list.size();
+        double x[] = new double[n];
+        double y[] = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = list.get(i).x;
+            y[i] = list.get(i).y;
+        }
+        return new Instance(x, y);
+    }
+
+    /**
+     * Evaluate area
+     */
+    private void evalArea() {
+        if (x.length == 0) {
+            return;
+        }
+        minX = maxX = x[0];
+        minY = maxY = y[0];
+        for (int i = 1; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Distances of an EXPLICIT instance
+     *
+     * @return null for other metrics
+     */
+    public MatrixDistance getWeights() {
+        return weights;
+    }
+
+    public int numCity() {
+        return x.length;
+    }
+
+    /**
+     * x coordinates, shared and not to be modified
+     *
+     * @return
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * y coordinates, shared and not to be modified
+     *
+     * @return
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * The larger of the width and height of the area
+     *
+     * For explicit distances, the largest distance.
+     *
+     * @return
+     */
+    public double extent() {
+        if (weights != null) {
+            return weights.max();
+        }
+        return Math.max(maxX - minX, maxY - minY);
+    }
+
+    public Point getMin() {
+        return new Point((int) Math.floor(minX), (int) Math.floor(minY));
+    }
+
+    public Point getMax() {
+        return new Point((int) Math.ceil(maxX), (int) Math.ceil(maxY));
+    }
+
+    /**
+     * Line numbers of malformed lines in the source
+     *
+     * @return at most the first InstanceReader.MAX_REPORT line numbers
+     */
+    public int[] getMalformed() {
+        return malformed.clone();
+    }
+
+    public int numMalformed() {
+        return numMalformed;
+    }
+}
@@ -0,0 +1,256 @@
+package model;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reader of instances in the two-column text format
+ *
+ * Each line has x and y coordinates separated by white spaces; further
+ * columns are ignored. Coordinates are parsed directly from bytes into
+ * primitive arrays. Integers and decimal numbers, with optional exponent,
+ * are accepted. Blank lines are skipped and other lines that cannot be
+ * parsed are reported as malformed.
+ *
+ * @author tadaki
+ */
+public class InstanceReader {
+
+    //the number of malformed line numbers kept
+    public static final int MAX_REPORT = 100;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final double POW10[] = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private double x[] = new double[1024];
+    private double y[] = new double[1024];
+    private int n = 0;//the number of cities
+    private final int malformed[] = new int[MAX_REPORT];
+    private int numMalformed = 0;
+    private int lineNumber = 0;
+    private final double value[] = new double[2];//coordinates in a line
+
+    private InstanceReader() {
+    }
+
+    /**
+     * Reading a file
+     *
+     * Malformed lines are logged and recorded in the instance.
+     *
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    public static Instance read(String filename) throws IOException {
+        try ( InputStream in = new FileInputStream(filename)) {
+            Instance instance = read(in);
+            if (instance.numMalformed() > 0) {
+                Logger.getLogger(InstanceReader.class.getName()).log(
+                        Level.WARNING, "{0}: {1} malformed lines, e.g. {2}",
+                        new Object[]{filename, instance.numMalformed(),
+                            Arrays.toString(instance.getMalformed())});
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Reading a stream
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static Instance read(InputStream in) throws IOException {
+        InstanceReader reader = new InstanceReader();
+        byte buffer[] = new byte[BUFFER_SIZE];
+        int filled = 0;//bytes in buffer
+        int r;
+        while ((r = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+            filled += r;
+            int start = 0;
+            for (int i = start; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    reader.parseLine(buffer, start, i);
+                    start = i + 1;
+                }
+            }
+            //moving the incomplete line to the head
+            System.arraycopy(buffer, start, buffer, 0, filled - start);
+            filled -= start;
+            if (filled == buffer.length) {//line longer than the buffer
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+        }
+        if (filled > 0) {
+            reader.parseLine(buffer, 0, filled);
+        }
+        return reader.toInstance();
+    }
+
+    /**
+     * Parsing lines given as strings
+     *
+     * @param lines
+     * @return
+     * @throws NumberFormatException if a line is malformed
+     */
+    public static Instance parse(String lines[]) throws NumberFormatException {
+        InstanceReader reader = new InstanceReader();
+        for (String line : lines) {
+            byte b[] = line.getBytes(StandardCharsets.US_ASCII);
+            if (!reader.parseLine(b, 0, b.length)) {
+                throw new NumberFormatException("malformed line: " + line);
+            }
+        }
+        return reader.toInstance();
+    }
+
+    private Instance toInstance() {
+        return new Instance(Arrays.copyOf(x, n), Arrays.copyOf(y, n),
+                Arrays.copyOf(malformed, Math.min(numMalformed, MAX_REPORT)),
+                numMalformed);
+    }
+
+    /**
+     * Parsing one line b[from..to)
+     *
+     * @return false if malformed
+     */
+    private boolean parseLine(byte b[], int from, int to) {
+        lineNumber++;
+        if (to > from && b[to - 1] == '\r') {
+            to--;
+        }
+        int i = skipSpace(b, from, to);
+        if (i == to) {//blank line
+            return true;
+        }
+        for (int k = 0; k < 2; k++) {
+            int end = parseNumber(b, i, to, k);
+            if (end < 0 || (end < to && !isSpace(b[end]))) {
+                return reportMalformed();
+            }
+            i = skipSpace(b, end, to);
+            if (k == 0 && i == to) {//only one column
+                return reportMalformed();
+            }
+        }
+        if (n == x.length) {
+            x = Arrays.copyOf(x, n + (n >> 1));
+            y = Arrays.copyOf(y, n + (n >> 1));
+        }
+        x[n] = value[0];
+        y[n] = value[1];
+        n++;
+        return true;
+    }
+
+    private boolean reportMalformed() {
+        if (numMalformed < MAX_REPORT) {
+            malformed[numMalformed] = lineNumber;
+        }
+        numMalformed++;
+        return false;
+    }
+
+    /**
+     * Parsing a number starting at b[i] into value[k]
+     *
+     * @return index after the number, or -1 if not a number
+     */
+    private int parseNumber(byte b[], int i, int to, int k) {
+        int start = i;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = (b[i] == '-');
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;//significant digits in mantissa
+        int exp10 = 0;
+        boolean exact = true;
+        int numDigit = 0;
+        while (i < to && b[i] >= '0' && b[i] <= '9') {
+            if (digits < 18) {
+                mantissa = 10 * mantissa + (b[i] - '0');
+                if (mantissa > 0) {
+                    digits++;
+                }
+            } else {
+                exp10++;
+                exact = false;
+            }
+            i++;
+            numDigit++;
+        }
+        if (i < to && b[i] == '.') {
+            i++;
+            while (i < to && b[i] >= '0' && b[i] <= '9') {
+                if (digits < 18) {
+                    mantissa = 10 * mantissa + (b[i] - '0');
+                    if (mantissa > 0) {
+                        digits++;
+                    }
+                    exp10--;
+                } else {
+                    exact = false;
+                }
+                i++;
+                numDigit++;
+            }
+        }
+        if (numDigit == 0) {
+            return -1;
+        }
+        if (i < to && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean negExp = false;
+            if (i < to && (b[i] == '-' || b[i] == '+')) {
+                negExp = (b[i] == '-');
+                i++;
+            }
+            int e = 0;
+            int expStart = i;
+            while (i < to && b[i] >= '0' && b[i] <= '9') {
+                e = Math.min(10 * e + (b[i] - '0'), 100000);
+                i++;
+            }
+            if (i == expStart) {
+                return -1;
+            }
+            exp10 += negExp ? -e : e;
+        }
+        if (exact && mantissa < (1L << 53) && Math.abs(exp10) < POW10.length) {
+            //correctly rounded: both operands are exact doubles
+            double v = (exp10 >= 0)
+                    ? mantissa * POW10[exp10] : mantissa / POW10[-exp10];
+            value[k] = negative ? -v : v;
+        } else {
+            value[k] = Double.parseDouble(
+                    new String(b, start, i - start, StandardCharsets.US_ASCII));
+            if (Double.isInfinite(value[k])) {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private static int skipSpace(byte b[], int i, int to) {
+        while (i < to && isSpace(b[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+}
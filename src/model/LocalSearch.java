@@ -0,0 +1,240 @@
+package model;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Greedy descent by 2-opt and Or-opt moves over neighbour lists
+ *
+ * Only edges to the k nearest neighbours are considered for new edges. A
+ * city whose search finds no improving move gets its don't-look bit set and
+ * is skipped until an edge at one of its ends is changed; active cities
+ * wait in a queue. The search ends at a local minimum.
+ *
+ * @author tadaki
+ */
+public class LocalSearch {
+
+    private static final double EPS = 1e-9;//smallest improvement taken
+    private static final int MAX_SEGMENT = 3;//longest segment for Or-opt
+    private static final int CHECK_INTERVAL = 1024;//cities between stop checks
+    private final Tour tour;
+    private final NeighbourList neighbours;
+    private final int n;//the number of cities
+    private final int queue[];//circular queue of active cities
+    private final boolean active[];//negation of don't-look bits
+    private int head = 0;
+    private int numActive = 0;
+    private long numMove = 0;//the number of improving moves applied
+
+    /**
+     * @param tour improved in place
+     * @param neighbours candidates for new edges
+     */
+    public LocalSearch(Tour tour, NeighbourList neighbours) {
+        this.tour = tour;
+        this.neighbours = neighbours;
+        n = tour.numCity();
+        queue = new int[n];
+        active = new boolean[n];
+    }
+
+    /**
+     * Descending to a local minimum
+     *
+     * All cities are activated in the order of the circuit.
+     *
+     * @return path length
+     */
+    public double run() {
+        return run(() -> false);
+    }
+
+    /**
+     * Descending until a local minimum or a stop
+     *
+     * @param stop checked every CHECK_INTERVAL cities; the search ends if
+     * true
+     * @return path length
+     */
+    public double run(BooleanSupplier stop) {
+        if (n < 8) {
+            return tour.getPathLength();
+        }
+        for (int c : tour.order()) {
+            push(c);
+        }
+        long numChecked = 0;
+        while (numActive > 0) {
+            if (++numChecked % CHECK_INTERVAL == 0 && stop.getAsBoolean()) {
+                break;
+            }
+            int a = queue[head];
+            if (++head == n) {
+                head = 0;
+            }
+            numActive--;
+            active[a] = false;
+            if (twoOpt(a) || orOpt(a)) {
+                push(a);
+                numMove++;
+            }
+        }
+        return tour.getPathLength();
+    }
+
+    private void push(int c) {
+        if (active[c]) {
+            return;
+        }
+        active[c] = true;
+        int i = head + numActive;
+        queue[i >= n ? i - n : i] = c;
+        numActive++;
+    }
+
+    /**
+     * First improving 2-opt move adding an edge from a to a neighbour
+     *
+     * @param a
+     * @return true if applied
+     */
+    private boolean twoOpt(int a) {
+        int k = neighbours.getK();
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double dab = tour.distance(a, b);
+            for (int j = 0; j < k; j++) {
+                int c = neighbours.get(a, j);
+                double dac = tour.distance(a, c);
+                if (dac >= dab) {//no gain with farther neighbours
+                    break;
+                }
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double delta = dac + tour.distance(b, d) - dab
+                        - tour.distance(c, d);
+                if (delta < -EPS) {
+                    tour.exchange(a, b, c, d);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First improving move of a segment starting or ending at a
+     *
+     * The segment is inserted next to a neighbour of one of its ends, in
+     * either direction.
+     *
+     * @param a
+     * @return true if applied
+     */
+    private boolean orOpt(int a) {
+        int k = neighbours.getK();
+        for (int len = 1; len <= MAX_SEGMENT && len + 3 <= n; len++) {
+            for (int dir = 0; dir < 2; dir++) {
+                //segment s1..s2 along the circuit, containing a at one end
+                int s1 = a;
+                int s2 = a;
+                for (int i = 1; i < len; i++) {
+                    if (dir == 0) {
+                        s2 = tour.next(s2);
+                    } else {
+                        s1 = tour.prev(s1);
+                    }
+                }
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+                //gain by taking the segment out
+                double gain = tour.distance(p, s1) + tour.distance(s2, nx)
+                        - tour.distance(p, nx);
+                for (int end = 0; end < 2; end++) {
+                    int e = (end == 0) ? s1 : s2;
+                    for (int j = 0; j < k; j++) {
+                        int m = neighbours.get(e, j);
+                        double dem = tour.distance(e, m);
+                        if (dem >= gain) {
+                            break;
+                        }
+                        if (inSegment(m, s1, len)) {
+                            continue;
+                        }
+                        //between m and next(m) or between prev(m) and m,
+                        //in the direction joining e to m
+                        for (int side = 0; side < 2; side++) {
+                            int c = (side == 0) ? m : tour.prev(m);
+                            int d = tour.next(c);
+                            if (c == p || inSegment(c, s1, len)
+                                    || inSegment(d, s1, len)) {
+                                continue;
+                            }
+                            boolean reversed = (side == 0) == (end == 1);
+                            double added = reversed
+                                    ? tour.distance(c, s2) + tour.distance(s1, d)
+                                    : tour.distance(c, s1) + tour.distance(s2, d);
+                            double delta = added - tour.distance(c, d)
+                                    - gain;
+                            if (delta < -EPS) {
+                                moveSegment(p, s1, s2, nx, c, d, reversed);
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c);
+                                push(d);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean inSegment(int c, int s1, int len) {
+        for (int i = 0, e = s1; i < len; i++, e = tour.next(e)) {
+            if (e == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moving s1..s2 between c and d=next(c), as OrOptMove does
+     */
+    private void moveSegment(int p, int s1, int s2, int nx, int c, int d,
+            boolean reversed) {
+        tour.exchange(p, s1, c, d);
+        tour.exchange(p, c, nx, s2);
+        if (!reversed) {
+            tour.exchange(c, s2, s1, d);
+        }
+    }
+
+    /**
+     * Whether the last run ended at a local minimum rather than by a stop
+     *
+     * @return
+     */
+    public boolean isLocalMinimum() {
+        return numActive == 0;
+    }
+
+    /**
+     * The number of improving moves applied
+     *
+     * @return
+     */
+    public long getNumMove() {
+        return numMove;
+    }
+}
@@ -0,0 +1,79 @@
+package model;
+
+/**
+ * Full distance matrix packed as a lower triangle of floats
+ *
+ * @author tadaki
+ */
+public class MatrixDistance implements DistanceProvider {
+
+    //the largest number of cities whose triangle fits in one array
+    public static final int MAX_CITY = 65536;
+    private final float matrix[];
+
+    /**
+     * @param matrix lower triangle, row by row without the diagonal
+     */
+    public MatrixDistance(float matrix[]) {
+        this.matrix = matrix;
+    }
+
+    public MatrixDistance(double x[], double y[]) {
+        this(new DirectDistance(x, y), x.length);
+    }
+
+    /**
+     * @param source distances to be stored
+     * @param n the number of cities
+     */
+    public MatrixDistance(DistanceProvider source, int n) {
+        matrix = new float[(int) ((long) n * (n - 1) / 2)];
+        int k = 0;
+        for (int a = 1; a < n; a++) {
+            for (int b = 0; b < a; b++) {
+                matrix[k] = (float) source.distance(a, b);
+                k++;
+            }
+        }
+    }
+
+    @Override
+    public double distance(int a, int b) {
+        if (a > b) {
+            return matrix[(int) ((long) a * (a - 1) / 2) + b];
+        }
+        if (a < b) {
+            return matrix[(int) ((long) b * (b - 1) / 2) + a];
+        }
+        return 0.;
+    }
+
+    @Override
+    public double exchangeDelta(int a, int b, int c, int d) {
+        return distance(a, c) + distance(b, d)
+                - distance(a, b) - distance(c, d);
+    }
+
+    /**
+     * The largest distance
+     *
+     * @return
+     */
+    public double max() {
+        double m = 0.;
+        for (float d : matrix) {
+            m = Math.max(m, d);
+        }
+        return m;
+    }
+
+    /**
+     * Memory required for n cities
+     *
+     * @param n
+     * @return bytes
+     */
+    public static long bytes(int n) {
+        return 4L * n * (n - 1) / 2;
+    }
+}
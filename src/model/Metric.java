@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Distance functions between points
+ *
+ * EUC_2D, CEIL_2D, ATT, MAN_2D and GEO follow the definitions of TSPLIB.
+ * Distances are computed by the provider chosen once by MetricDistance.of();
+ * EXPLICIT distances are given by a matrix.
+ *
+ * @author tadaki
+ */
+public enum Metric {
+    EUCLIDEAN, //Euclidean distance
+    EUC_2D, //Euclidean distance rounded to the nearest integer
+    CEIL_2D, //Euclidean distance rounded up
+    ATT, //pseudo-Euclidean distance
+    MAN_2D, //Manhattan distance rounded to the nearest integer
+    GEO, //great-circle distance, coordinates are latitude and longitude
+    EXPLICIT//distances given by a matrix
+}
@@ -0,0 +1,179 @@
+package model;
+
+/**
+ * Distances of metrics other than Euclidean computed on the fly
+ *
+ * Each metric has its own final class, so that the call in the loop of moves
+ * sees a single implementation and the formula is inlined without a switch.
+ * Each class has its own copy of exchangeDelta() for the same reason.
+ * Euclidean distance is left to DirectDistance.
+ *
+ * @author tadaki
+ */
+public abstract class MetricDistance implements DistanceProvider {
+
+    protected final double x[];
+    protected final double y[];
+
+    protected MetricDistance(double x[], double y[]) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Provider for the metric
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param metric any metric except EXPLICIT
+     * @return
+     */
+    public static DistanceProvider of(double x[], double y[], Metric metric) {
+        return switch (metric) {
+            case EUCLIDEAN ->
+                new DirectDistance(x, y);
+            case EUC_2D ->
+                new Euc2d(x, y);
+            case CEIL_2D ->
+                new Ceil2d(x, y);
+            case ATT ->
+                new Att(x, y);
+            case MAN_2D ->
+                new Man2d(x, y);
+            case GEO ->
+                new Geo(x, y);
+            case EXPLICIT ->
+                throw new IllegalArgumentException(
+                        "explicit distances need a matrix");
+        };
+    }
+
+    static final class Euc2d extends MetricDistance {
+
+        Euc2d(double x[], double y[]) {
+            super(x, y);
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            double dx = x[a] - x[b];
+            double dy = y[a] - y[b];
+            return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+        }
+
+        @Override
+        public double exchangeDelta(int a, int b, int c, int d) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+    }
+
+    static final class Ceil2d extends MetricDistance {
+
+        Ceil2d(double x[], double y[]) {
+            super(x, y);
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            double dx = x[a] - x[b];
+            double dy = y[a] - y[b];
+            return Math.ceil(Math.sqrt(dx * dx + dy * dy));
+        }
+
+        @Override
+        public double exchangeDelta(int a, int b, int c, int d) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+    }
+
+    static final class Att extends MetricDistance {
+
+        Att(double x[], double y[]) {
+            super(x, y);
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            double dx = x[a] - x[b];
+            double dy = y[a] - y[b];
+            double r = Math.sqrt((dx * dx + dy * dy) / 10.);
+            int t = (int) (r + 0.5);
+            return (t < r) ? t + 1 : t;
+        }
+
+        @Override
+        public double exchangeDelta(int a, int b, int c, int d) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+    }
+
+    static final class Man2d extends MetricDistance {
+
+        Man2d(double x[], double y[]) {
+            super(x, y);
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            return (int) (Math.abs(x[a] - x[b]) + Math.abs(y[a] - y[b]) + 0.5);
+        }
+
+        @Override
+        public double exchangeDelta(int a, int b, int c, int d) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+    }
+
+    /**
+     * Great-circle distance of TSPLIB in kilometres
+     *
+     * Coordinates are latitude and longitude in the form DDD.MM (degrees and
+     * minutes), converted to radians once.
+     */
+    static final class Geo extends MetricDistance {
+
+        private static final double PI = 3.141592;//value fixed by TSPLIB
+        private static final double RRR = 6378.388;//radius of the earth
+        private final double latitude[];
+        private final double longitude[];
+
+        Geo(double x[], double y[]) {
+            super(x, y);
+            int n = x.length;
+            latitude = new double[n];
+            longitude = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitude[i] = radian(x[i]);
+                longitude[i] = radian(y[i]);
+            }
+        }
+
+        private static double radian(double v) {
+            int deg = (int) v;
+            double min = v - deg;
+            return PI * (deg + 5. * min / 3.) / 180.;
+        }
+
+        @Override
+        public double distance(int a, int b) {
+            if (a == b) {
+                return 0.;
+            }
+            double q1 = Math.cos(longitude[a] - longitude[b]);
+            double q2 = Math.cos(latitude[a] - latitude[b]);
+            double q3 = Math.cos(latitude[a] + latitude[b]);
+            return (int) (RRR * Math.acos(0.5 * ((1. + q1) * q2
+                    - (1. - q1) * q3)) + 1.);
+        }
+
+        @Override
+        public double exchangeDelta(int a, int b, int c, int d) {
+            return distance(a, c) + distance(b, d)
+                    - distance(a, b) - distance(c, d);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Elementary change of a circuit
+ *
+ * A move is first proposed, which evaluates the change of length without
+ * touching the circuit. The proposed move can then be applied in place and
+ * the applied move can be undone.
+ *
+ * @author tadaki
+ */
+public interface Move {
+
+    /**
+     * Draw a candidate
+     *
+     * @param tour
+     * @param random
+     * @return change of path length, NaN if no valid candidate is found
+     */
+    public double propose(Tour tour, RandomGenerator random);
+
+    /**
+     * Apply the proposed candidate
+     *
+     * @param tour
+     */
+    public void apply(Tour tour);
+
+    /**
+     * Undo the applied candidate
+     *
+     * @param tour
+     */
+    public void undo(Tour tour);
+}
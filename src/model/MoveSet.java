@@ -0,0 +1,72 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Moves chosen at random with weights
+ *
+ * @author tadaki
+ */
+public class MoveSet {
+
+    //plain array, since pick() is called for every proposal
+    private Move moves[] = new Move[0];
+    private double cumulative[] = new double[0];//cumulative weights
+
+    /**
+     * Adding a move
+     *
+     * @param move
+     * @param weight relative frequency of the move
+     * @return this
+     */
+    public MoveSet add(Move move, double weight) {
+        if (weight < 0.) {
+            throw new IllegalArgumentException("negative weight " + weight);
+        }
+        if (weight == 0.) {
+            return this;
+        }
+        int m = moves.length;
+        moves = Arrays.copyOf(moves, m + 1);
+        moves[m] = move;
+        double c[] = new double[m + 1];
+        System.arraycopy(cumulative, 0, c, 0, m);
+        c[m] = (m == 0 ? 0. : cumulative[m - 1]) + weight;
+        cumulative = c;
+        return this;
+    }
+
+    /**
+     * Choose one move according to the weights
+     *
+     * @param random
+     * @return
+     */
+    public Move pick(RandomGenerator random) {
+        int m = cumulative.length;
+        if (m == 1) {
+            return moves[0];
+        }
+        double r = random.nextDouble() * cumulative[m - 1];
+        for (int i = 0; i < m - 1; i++) {
+            if (r < cumulative[i]) {
+                return moves[i];
+            }
+        }
+        return moves[m - 1];
+    }
+
+    public boolean isEmpty() {
+        return moves.length == 0;
+    }
+
+    /**
+     * @return unmodifiable list of the moves
+     */
+    public List<Move> getMoves() {
+        return List.of(moves);
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Independent annealing runs from different seeds
+ *
+ * Runs are executed on a work-stealing pool and reported as each one
+ * finishes. Remaining runs are stopped once the target length is reached
+ * or the time budget is spent.
+ *
+ * @author tadaki
+ */
+public class MultiStart {
+
+    private final Simulation base;
+    private final int numStage;
+    private final int stageLength;
+    private final double coolingRate;
+    private double targetLength = 0.;
+    private long timeBudget = Long.MAX_VALUE;//nanoseconds
+    private RunResult best = null;
+
+    /**
+     * @param base simulation giving the cities and the proposal mode
+     * @param numStage the number of temperatures
+     * @param stageLength Monte Carlo steps at each temperature
+     * @param coolingRate T->coolingRate*T after each stage
+     */
+    public MultiStart(Simulation base, int numStage, int stageLength,
+            double coolingRate) {
+        this.base = base;
+        this.numStage = numStage;
+        this.stageLength = stageLength;
+        this.coolingRate = coolingRate;
+    }
+
+    /**
+     * Running annealings in parallel
+     *
+     * @param numRun the number of runs
+     * @param seed master seed, from which the seed of each run is drawn
+     * @param listener receives each run as it finishes, on this thread
+     * @return the best run
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public RunResult run(int numRun, long seed, Consumer<RunResult> listener)
+            throws InterruptedException, ExecutionException {
+        long deadline = (timeBudget == Long.MAX_VALUE)
+                ? Long.MAX_VALUE : System.nanoTime() + timeBudget;
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Xoroshiro128 master = new Xoroshiro128(seed);
+        ForkJoinPool pool = new ForkJoinPool();
+        CompletionService<RunResult> service
+                = new ExecutorCompletionService<>(pool);
+        List<Future<RunResult>> futures
+                = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int k = 0; k < numRun; k++) {
+                long s = master.nextLong();
+                futures.add(service.submit(() -> oneRun(s, stop, deadline)));
+            }
+            for (int k = 0; k < numRun; k++) {
+                RunResult r = service.take().get();
+                if (best == null || r.length() < best.length()) {
+                    best = r;
+                }
+                if (best.length() <= targetLength) {
+                    stop.set(true);
+                }
+                listener.accept(r);
+            }
+        } finally {
+            stop.set(true);
+            futures.forEach(f -> f.cancel(false));
+            pool.shutdown();
+        }
+        return best;
+    }
+
+    private RunResult oneRun(long seed, AtomicBoolean stop, long deadline) {
+        Simulation sim = new Simulation(base, new Xoroshiro128(seed));
+        List<Result> trace = sim.anneal(numStage, stageLength, coolingRate,
+                () -> stop.get() || System.nanoTime() > deadline);
+        boolean completed = (trace.size() == numStage);
+        return new RunResult(seed, sim.getPathLength(), sim.getTour().order(),
+                trace, completed);
+    }
+
+    /**
+     * Remaining runs are stopped when a run reaches this length
+     *
+     * @param targetLength
+     */
+    public void setTargetLength(double targetLength) {
+        this.targetLength = targetLength;
+    }
+
+    /**
+     * Runs are stopped when this time has passed since the start
+     *
+     * @param millis time budget (milliseconds)
+     */
+    public void setTimeBudget(long millis) {
+        this.timeBudget = millis * 1000000L;
+    }
+
+    public RunResult getBest() {
+        return best;
+    }
+
+    /**
+     * @param args
+     * @throws java.lang.Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Simulation base = new Simulation("points.txt", new Xoroshiro128(48L));
+        MultiStart ms = new MultiStart(base, 200, 1000, 0.9);
+        RunResult best = ms.run(8, 48L, r
+                -> System.out.println(r.seed() + " " + r.length()));
+        System.out.println("best " + best.length());
+    }
+}
@@ -0,0 +1,42 @@
+package model;
+
+/**
+ * Nearest neighbour circuit
+ *
+ * From city 0, the circuit goes to the nearest city not yet visited. The
+ * neighbour list is looked up first; only when all neighbours have been
+ * visited is the grid of the remaining cities searched, by coordinates.
+ *
+ * @author tadaki
+ */
+public class NearestNeighbourBuilder implements TourBuilder {
+
+    @Override
+    public int[] build(Instance instance, NeighbourList neighbours,
+            DistanceProvider dist) {
+        double x[] = instance.getX();
+        double y[] = instance.getY();
+        int n = x.length;
+        int k = neighbours.getK();
+        CityGrid grid = new CityGrid(x, y, null);
+        int order[] = new int[n];
+        int c = 0;
+        grid.remove(c);
+        for (int i = 1; i < n; i++) {
+            int next = -1;
+            for (int j = 0; j < k && next < 0; j++) {//nearest first
+                int b = neighbours.get(c, j);
+                if (grid.contains(b)) {
+                    next = b;
+                }
+            }
+            if (next < 0) {
+                next = grid.nearest(x[c], y[c]);
+            }
+            grid.remove(next);
+            order[i] = next;
+            c = next;
+        }
+        return order;
+    }
+}
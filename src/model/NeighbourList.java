@@ -0,0 +1,177 @@
+package model;
+
+/**
+ * k nearest neighbours of each city
+ *
+ * Cities are put in a uniform grid with about two cities per cell and the
+ * neighbours of each city are found by searching rings of cells around it.
+ *
+ * @author tadaki
+ */
+public class NeighbourList {
+
+    private final int k;//the number of neighbours per city
+    private final int neighbour[];//k neighbours per city, nearest first
+
+    /**
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param k the number of neighbours per city
+     */
+    public NeighbourList(double x[], double y[], int k) {
+        int n = x.length;
+        this.k = Math.min(k, n - 1);
+        neighbour = new int[n * this.k];
+        if (this.k > 0) {
+            build(x, y);
+        }
+    }
+
+    /**
+     * Neighbours by given distances, searched over all pairs
+     *
+     * @param dist
+     * @param n the number of cities
+     * @param k the number of neighbours per city
+     */
+    public NeighbourList(DistanceProvider dist, int n, int k) {
+        this.k = Math.min(k, n - 1);
+        neighbour = new int[n * this.k];
+        double d[] = new double[this.k];
+        for (int a = 0; a < n; a++) {
+            int m = 0;//neighbours found so far
+            for (int b = 0; b < n; b++) {
+                if (b == a) {
+                    continue;
+                }
+                double dab = dist.distance(a, b);
+                if (m == this.k && dab >= d[m - 1]) {
+                    continue;
+                }
+                //insertion into the sorted list
+                int i = (m < this.k) ? m++ : m - 1;
+                while (i > 0 && d[i - 1] > dab) {
+                    d[i] = d[i - 1];
+                    neighbour[a * this.k + i] = neighbour[a * this.k + i - 1];
+                    i--;
+                }
+                d[i] = dab;
+                neighbour[a * this.k + i] = b;
+            }
+        }
+    }
+
+    private void build(double x[], double y[]) {
+        int n = x.length;
+        double minX = x[0], maxX = x[0], minY = y[0], maxY = y[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double w = Math.max(maxX - minX, maxY - minY);
+        if (w == 0.) {
+            w = 1.;
+        }
+        //cell size for about two cities per cell
+        double cell = Math.max(Math.sqrt((maxX - minX) * (maxY - minY) * 2. / n),
+                w * 2. / n);
+        int gx = (int) ((maxX - minX) / cell) + 1;
+        int gy = (int) ((maxY - minY) / cell) + 1;
+        //counting sort of cities into cells
+        int cellOf[] = new int[n];
+        int start[] = new int[gx * gy + 1];
+        for (int i = 0; i < n; i++) {
+            int cx = (int) ((x[i] - minX) / cell);
+            int cy = (int) ((y[i] - minY) / cell);
+            cellOf[i] = cy * gx + cx;
+            start[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < gx * gy; c++) {
+            start[c + 1] += start[c];
+        }
+        int fill[] = start.clone();
+        int member[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            member[fill[cellOf[i]]++] = i;
+        }
+
+        int best[] = new int[k];
+        double bestD[] = new double[k];
+        for (int a = 0; a < n; a++) {
+            int cx = cellOf[a] % gx;
+            int cy = cellOf[a] / gx;
+            int found = 0;
+            int maxR = Math.max(gx, gy);
+            for (int r = 0; r <= maxR; r++) {
+                //cells at Chebyshev distance r from (cx,cy)
+                for (int iy = cy - r; iy <= cy + r; iy++) {
+                    if (iy < 0 || iy >= gy) {
+                        continue;
+                    }
+                    boolean edge = (iy == cy - r || iy == cy + r);
+                    int step = edge ? 1 : 2 * r;
+                    for (int ix = cx - r; ix <= cx + r; ix += Math.max(step, 1)) {
+                        if (ix < 0 || ix >= gx) {
+                            continue;
+                        }
+                        int c = iy * gx + ix;
+                        for (int m = start[c]; m < start[c + 1]; m++) {
+                            int b = member[m];
+                            if (b == a) {
+                                continue;
+                            }
+                            double dx = x[a] - x[b];
+                            double dy = y[a] - y[b];
+                            double d = dx * dx + dy * dy;
+                            if (found < k) {
+                                found++;
+                            } else if (d >= bestD[k - 1]) {
+                                continue;
+                            }
+                            //insertion into the sorted list
+                            int j = found - 1;
+                            while (j > 0 && bestD[j - 1] > d) {
+                                best[j] = best[j - 1];
+                                bestD[j] = bestD[j - 1];
+                                j--;
+                            }
+                            best[j] = b;
+                            bestD[j] = d;
+                        }
+                    }
+                }
+                //cities outside ring r are at least r*cell away
+                if (found == k && bestD[k - 1] <= (r * cell) * (r * cell)) {
+                    break;
+                }
+            }
+            System.arraycopy(best, 0, neighbour, a * k, k);
+        }
+    }
+
+    /**
+     * j-th nearest neighbour of city a
+     *
+     * @param a
+     * @param j 0 for the nearest
+     * @return
+     */
+    public int get(int a, int j) {
+        return neighbour[a * k + j];
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Neighbours of all cities, k entries per city
+     *
+     * @return
+     */
+    public int[] toArray() {
+        return neighbour;
+    }
+}
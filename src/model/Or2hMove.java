@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * Moving a segment of 2 or 3 cities and inserting it reversed
+ *
+ * This is the or2h variant of 3-opt moves.
+ *
+ * @author tadaki
+ */
+public class Or2hMove extends OrOptMove {
+
+    public Or2hMove(NeighbourList neighbours) {
+        super(2, 3, true, neighbours);
+    }
+}
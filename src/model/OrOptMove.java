@@ -0,0 +1,98 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Moving a segment of a few cities to another place
+ *
+ * The segment s1..s2 between p and nx is removed and inserted between c and
+ * d=next(c), either in the original direction or reversed.
+ *
+ * @author tadaki
+ */
+public class OrOptMove extends ExchangeMove {
+
+    private final int minLength;
+    private final int maxLength;
+    private final boolean reversed;//the segment is inserted reversed
+    private final NeighbourList neighbours;
+    private int p, s1, s2, nx, c, d;
+
+    /**
+     * @param minLength minimum length of the segment
+     * @param maxLength maximum length of the segment
+     * @param reversed true if the segment is inserted reversed
+     * @param neighbours c is drawn among neighbours of s1, or uniformly if
+     * null
+     */
+    public OrOptMove(int minLength, int maxLength, boolean reversed,
+            NeighbourList neighbours) {
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.reversed = reversed;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Moving 1 to 3 cities in the original direction
+     *
+     * @param neighbours
+     */
+    public OrOptMove(NeighbourList neighbours) {
+        this(1, 3, false, neighbours);
+    }
+
+    @Override
+    public double propose(Tour tour, RandomGenerator random) {
+        int n = tour.numCity();
+        int len = minLength + random.nextInt(maxLength - minLength + 1);
+        if (n < len + 3) {
+            return Double.NaN;
+        }
+        s1 = random.nextInt(n);
+        s2 = s1;
+        for (int i = 1; i < len; i++) {
+            s2 = tour.next(s2);
+        }
+        p = tour.prev(s1);
+        nx = tour.next(s2);
+        if (neighbours != null) {
+            c = neighbours.get(s1, random.nextInt(neighbours.getK()));
+            if (random.nextBoolean()) {
+                c = tour.prev(c);
+            }
+        } else {
+            c = random.nextInt(n);
+        }
+        if (c == p) {
+            return Double.NaN;
+        }
+        for (int i = 0, e = s1; i < len; i++, e = tour.next(e)) {
+            if (e == c) {//c in the segment
+                return Double.NaN;
+            }
+        }
+        d = tour.next(c);
+        double removed = tour.distance(p, s1) + tour.distance(s2, nx)
+                + tour.distance(c, d);
+        double added = tour.distance(p, nx);
+        if (reversed) {
+            added += tour.distance(c, s2) + tour.distance(s1, d);
+        } else {
+            added += tour.distance(c, s1) + tour.distance(s2, d);
+        }
+        return added - removed;
+    }
+
+    @Override
+    public void apply(Tour tour) {
+        clearJournal();
+        //p S nx..c d -> p c..nx S' d (S' is S reversed)
+        exchange(tour, p, s1, c, d);
+        //-> p nx..c S' d
+        exchange(tour, p, c, nx, s2);
+        if (!reversed) {//-> p nx..c S d
+            exchange(tour, c, s2, s1, d);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
+
+/**
+ * Replica exchange Monte Carlo over a ladder of temperatures
+ *
+ * Each replica runs on its own thread. After every interval of Monte Carlo
+ * steps the replicas meet at a barrier, where replicas at neighbouring
+ * temperatures exchange their temperatures with the Metropolis criterion.
+ *
+ * @author tadaki
+ */
+public class ParallelTempering {
+
+    private final Simulation replicas[];
+    private final double ladder[];//temperatures from low to high
+    private final int replicaAt[];//replica at each temperature
+    private final RandomGenerator random;//for exchanges
+    private final long numTrial[];//exchange trials between i and i+1
+    private final long numAccepted[];
+    private int parity = 0;//pairs starting from even or odd index
+    private double bestLength = Double.MAX_VALUE;
+    private int bestOrder[] = null;
+
+    /**
+     * @param base simulation giving the cities and the proposal mode
+     * @param numReplica the number of replicas
+     * @param tMin the lowest temperature
+     * @param tMax the highest temperature
+     * @param random random number generator, split for replicas
+     */
+    public ParallelTempering(Simulation base, int numReplica, double tMin,
+            double tMax, RandomGenerator random) {
+        this.random = random;
+        replicas = new Simulation[numReplica];
+        ladder = new double[numReplica];
+        replicaAt = new int[numReplica];
+        numTrial = new long[numReplica];
+        numAccepted = new long[numReplica];
+        //geometric ladder
+        double r = (numReplica > 1)
+                ? Math.pow(tMax / tMin, 1. / (numReplica - 1)) : 1.;
+        for (int i = 0; i < numReplica; i++) {
+            ladder[i] = tMin * Math.pow(r, i);
+            replicas[i] = new Simulation(base, Xoroshiro128.split(random));
+            replicas[i].setTemperature(ladder[i]);
+            replicaAt[i] = i;
+        }
+    }
+
+    /**
+     * Running replicas in parallel
+     *
+     * If a replica fails, the barrier is broken so that the others stop
+     * waiting, and the failure is thrown.
+     *
+     * @param numExchange the number of exchange rounds
+     * @param interval Monte Carlo steps between exchanges
+     * @throws InterruptedException
+     * @throws ExecutionException with the first failure of a replica
+     */
+    public void run(int numExchange, int interval)
+            throws InterruptedException, ExecutionException {
+        int m = replicas.length;
+        CyclicBarrier barrier = new CyclicBarrier(m, this::exchange);
+        ExecutorService executor = Executors.newFixedThreadPool(m);
+        CompletionService<Void> service
+                = new ExecutorCompletionService<>(executor);
+        try {
+            for (Simulation replica : replicas) {
+                service.submit(() -> {
+                    try {
+                        for (int k = 0; k < numExchange; k++) {
+                            for (int t = 0; t < interval; t++) {
+                                replica.oneMonteCarloStep();
+                            }
+                            barrier.await();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        barrier.reset();//releasing the others
+                        throw e;
+                    }
+                    return null;
+                });
+            }
+            ExecutionException broken = null;//replica released by a failure
+            for (int i = 0; i < m; i++) {
+                try {
+                    service.take().get();
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof BrokenBarrierException)) {
+                        throw e;
+                    }
+                    if (broken == null) {
+                        broken = e;
+                    }
+                }
+            }
+            if (broken != null) {
+                throw broken;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Exchanges between neighbouring temperatures
+     *
+     * Called by the last thread arriving at the barrier, while the others
+     * are waiting.
+     */
+    private void exchange() {
+        for (Simulation s : replicas) {
+            if (s.getPathLength() < bestLength) {
+                bestLength = s.getPathLength();
+                bestOrder = s.getTour().order();
+            }
+        }
+        for (int i = parity; i + 1 < ladder.length; i += 2) {
+            Simulation lo = replicas[replicaAt[i]];
+            Simulation hi = replicas[replicaAt[i + 1]];
+            double x = (1. / ladder[i] - 1. / ladder[i + 1])
+                    * (lo.getPathLength() - hi.getPathLength());
+            numTrial[i]++;
+            if (x >= 0. || random.nextDouble() < Math.exp(x)) {
+                int w = replicaAt[i];
+                replicaAt[i] = replicaAt[i + 1];
+                replicaAt[i + 1] = w;
+                replicas[replicaAt[i]].setTemperature(ladder[i]);
+                replicas[replicaAt[i + 1]].setTemperature(ladder[i + 1]);
+                numAccepted[i]++;
+            }
+        }
+        parity = 1 - parity;
+    }
+
+    /**
+     * Acceptance ratio of exchanges between neighbouring temperatures
+     *
+     * @return ratio for each pair (i,i+1)
+     */
+    public double[] exchangeRatio() {
+        double f[] = new double[ladder.length - 1];
+        for (int i = 0; i < f.length; i++) {
+            f[i] = (numTrial[i] == 0) ? 0. : (double) numAccepted[i] / numTrial[i];
+        }
+        return f;
+    }
+
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Sequence of cities of the best circuit
+     *
+     * @return copy of the sequence, or null before the first exchange
+     */
+    public int[] getBestOrder() {
+        return (bestOrder == null) ? null : bestOrder.clone();
+    }
+
+    /**
+     * Sequence of points of the best circuit
+     *
+     * @return
+     */
+    public List<Point> getBestPath() {
+        List<Point> list = Collections.synchronizedList(new ArrayList<>());
+        if (bestOrder == null) {
+            return list;
+        }
+        Tour t = replicas[0].getTour();
+        for (int c : bestOrder) {
+            list.add(new Point((int) Math.round(t.getX(c)),
+                    (int) Math.round(t.getY(c))));
+        }
+        return list;
+    }
+
+    /**
+     * The replica at the lowest temperature
+     *
+     * @return
+     */
+    public Simulation coldest() {
+        return replicas[replicaAt[0]];
+    }
+
+    public double[] getLadder() {
+        return ladder.clone();
+    }
+
+    /**
+     * @param args
+     * @throws java.lang.Exception
+     */
+    public static void main(String[] args) throws Exception {
+        Simulation base = new Simulation("points.txt", new Xoroshiro128(48L));
+        int m = Runtime.getRuntime().availableProcessors();
+        ParallelTempering pt = new ParallelTempering(base, m, 1., 1000.,
+                new Xoroshiro128(48L));
+        pt.run(1000, 10);
+        System.out.println(pt.getBestLength());
+        System.out.println(Arrays.toString(pt.exchangeRatio()));
+    }
+}
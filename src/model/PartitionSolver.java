@@ -0,0 +1,750 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * Annealing of large instances by spatial decomposition
+ *
+ * The plane is cut recursively at the median of the longer side (Karp's
+ * partition) until each region has at most regionSize cities. Regions are
+ * annealed in parallel, each by its own Simulation, and their circuits are
+ * merged in the order of the partition, each time exchanging the pair of
+ * edges that costs least. Finally windows straddling the cuts are annealed
+ * in parallel: the paths leaving a window are replaced by fixed edges, so
+ * that the window is a small circuit of its own.
+ *
+ * @author tadaki
+ */
+public class PartitionSolver {
+
+    /**
+     * Cut of the cities idx[lo..hi) at value along x or y, within the box
+     */
+    private record Cut(int lo, int hi, boolean alongX, double value,
+            double minX, double minY, double maxX, double maxY) {
+
+    }
+
+    /**
+     * Cities of a window and its rectangle
+     */
+    private record Window(int[] city, double minX, double minY, double maxX,
+            double maxY) {
+
+        boolean overlaps(Window w) {
+            return minX < w.maxX && w.minX < maxX
+                    && minY < w.maxY && w.minY < maxY;
+        }
+    }
+
+    /**
+     * Triples of a city and its new neighbours, and whether each new path
+     * of the window joins the same ends as an old one
+     */
+    private record Change(int[] adj, boolean paired) {
+
+    }
+
+    private final Instance instance;
+    private final double x[];
+    private final double y[];
+    private final int n;//the number of cities
+    private final DistanceProvider dist;
+    private int regionSize = 20000;//maximum cities per region
+    private int windowSize = 1000;//typical cities per repair window
+    private int numRepair = 2;//passes of boundary repair
+    private int numThread = Runtime.getRuntime().availableProcessors();
+    private long memoryBudget = DistanceProvider.DEFAULT_MEMORY_BUDGET;
+    private AdaptiveSchedule regionSchedule = new AdaptiveSchedule();
+    private AdaptiveSchedule windowSchedule = new AdaptiveSchedule();
+    private int idx[];//cities in the order of regions
+    private final List<int[]> regions
+            = Collections.synchronizedList(new ArrayList<>());
+    private final List<Cut> cuts = Collections.synchronizedList(new ArrayList<>());
+    private int order[];//current circuit
+    private double length;
+
+    public PartitionSolver(Instance instance) {
+        this.instance = instance;
+        x = instance.getX();
+        y = instance.getY();
+        n = instance.numCity();
+        dist = DistanceProvider.onTheFly(x, y, instance.getMetric());
+        regionSchedule.setQuench(0.01);
+        //windows start from a good path: little heating
+        windowSchedule.setInitialAcceptance(0.05);
+        windowSchedule.setQuench(0.01);
+    }
+
+    /**
+     * Annealing all regions, merging them and repairing the cuts
+     *
+     * @param seed master seed; regions and windows get split streams
+     * @return circuit
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public int[] solve(long seed) throws InterruptedException,
+            ExecutionException {
+        Xoroshiro128 master = new Xoroshiro128(seed);
+        partition();
+        ForkJoinPool pool = new ForkJoinPool(numThread);
+        try {
+            //regions
+            long budget = memoryBudget / numThread;
+            List<Callable<int[]>> tasks
+                    = Collections.synchronizedList(new ArrayList<>());
+            for (int r[] : regions) {
+                Xoroshiro128 random = master.split();
+                tasks.add(() -> annealRegion(r[0], r[1], random, budget));
+            }
+            List<int[]> circuits
+                    = Collections.synchronizedList(new ArrayList<>());
+            for (Future<int[]> f : pool.invokeAll(tasks)) {
+                circuits.add(f.get());
+            }
+            stitch(circuits);
+            //windows across the cuts, shifted by half a window in odd passes
+            for (int pass = 0; pass < numRepair; pass++) {
+                for (List<Window> batch : batches(windows(pass % 2 * 0.5))) {
+                    repair(batch, pool, master, budget);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        length = evalLength();
+        return order.clone();
+    }
+
+    /**
+     * Karp's partition of the cities into regions
+     */
+    private void partition() {
+        if (idx != null) {
+            return;
+        }
+        idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = i;
+        }
+        split(0, n, min(x), min(y), max(x), max(y));
+    }
+
+    private void split(int lo, int hi, double minX, double minY,
+            double maxX, double maxY) {
+        if (hi - lo <= regionSize) {
+            regions.add(new int[]{lo, hi});
+            return;
+        }
+        boolean alongX = (maxX - minX >= maxY - minY);
+        double key[] = alongX ? x : y;
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, key);
+        double v = key[idx[mid]];
+        cuts.add(new Cut(lo, hi, alongX, v, minX, minY, maxX, maxY));
+        if (alongX) {
+            split(lo, mid, minX, minY, v, maxY);
+            split(mid, hi, v, minY, maxX, maxY);
+        } else {
+            split(lo, mid, minX, minY, maxX, v);
+            split(mid, hi, minX, v, maxX, maxY);
+        }
+    }
+
+    /**
+     * Rearranging idx[lo..hi) so that idx[k] has the k-th smallest key
+     */
+    private void select(int lo, int hi, int k, double key[]) {
+        hi--;
+        while (lo < hi) {
+            double pivot = key[idx[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (key[idx[i]] < pivot) {
+                    i++;
+                }
+                while (key[idx[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int t = idx[i];
+                    idx[i] = idx[j];
+                    idx[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Annealing the cities idx[lo..hi)
+     *
+     * @return circuit of the region
+     */
+    private int[] annealRegion(int lo, int hi, Xoroshiro128 random,
+            long budget) {
+        int city[] = Arrays.copyOfRange(idx, lo, hi);
+        int m = city.length;
+        if (m < 8) {
+            return city;
+        }
+        double sx[] = new double[m];
+        double sy[] = new double[m];
+        for (int i = 0; i < m; i++) {
+            sx[i] = x[city[i]];
+            sy[i] = y[city[i]];
+        }
+        Simulation sim = new Simulation(
+                new Instance(sx, sy, instance.getMetric()), random, budget,
+                UnaryOperator.identity());
+        sim.setProposal(Simulation.Proposal.NEIGHBOUR);
+        regionSchedule.run(sim);
+        int o[] = sim.getTour().order();
+        for (int i = 0; i < m; i++) {
+            o[i] = city[o[i]];
+        }
+        return o;
+    }
+
+    /**
+     * Merging the circuits of regions in the order of the partition
+     *
+     * Each circuit is joined to the cities merged so far by replacing an
+     * edge on each side, choosing among pairs of neighbouring cities.
+     */
+    private void stitch(List<int[]> circuits) {
+        NeighbourList neighbours
+                = new NeighbourList(x, y, Simulation.NUM_NEIGHBOUR);
+        int next[] = new int[n];
+        int prev[] = new int[n];
+        boolean merged[] = new boolean[n];
+        for (int c[] : circuits) {
+            int m = c.length;
+            for (int i = 0; i < m; i++) {
+                next[c[i]] = c[(i + 1) % m];
+                prev[c[i]] = c[(i + m - 1) % m];
+            }
+        }
+        int first[] = circuits.get(0);
+        for (int c : first) {
+            merged[c] = true;
+        }
+        for (int r = 1; r < circuits.size(); r++) {
+            int c[] = circuits.get(r);
+            //best exchange: a1 a2 of merged cities, b1 b2 of the circuit
+            double best = Double.POSITIVE_INFINITY;
+            int join[] = new int[5];
+            for (int b : c) {
+                for (int j = 0; j < neighbours.getK(); j++) {
+                    int a = neighbours.get(b, j);
+                    if (merged[a]) {
+                        best = bestJoin(a, b, next, prev, best, join);
+                    }
+                }
+            }
+            if (best == Double.POSITIVE_INFINITY) {//no neighbour across
+                int b = c[0];
+                int a = -1;
+                for (int i = 0; i < n; i++) {
+                    if (merged[i] && (a < 0
+                            || dist.distance(i, b) < dist.distance(a, b))) {
+                        a = i;
+                    }
+                }
+                bestJoin(a, b, next, prev, best, join);
+            }
+            int a1 = join[0], a2 = join[1], b1 = join[2], b2 = join[3];
+            if (join[4] == 0) {//a1 b2 .. b1 a2
+                next[a1] = b2;
+                prev[b2] = a1;
+                next[b1] = a2;
+                prev[a2] = b1;
+            } else {//a1 b1 .. b2 a2, reversing the circuit
+                for (int e : c) {
+                    int t = next[e];
+                    next[e] = prev[e];
+                    prev[e] = t;
+                }
+                next[a1] = b1;
+                prev[b1] = a1;
+                next[b2] = a2;
+                prev[a2] = b2;
+            }
+            for (int e : c) {
+                merged[e] = true;
+            }
+        }
+        order = new int[n];
+        int e = first[0];
+        for (int i = 0; i < n; i++) {
+            order[i] = e;
+            e = next[e];
+        }
+    }
+
+    /**
+     * The cheapest of the four exchanges adding edge (a,b)
+     *
+     * @return the cost of the best exchange found so far
+     */
+    private double bestJoin(int a, int b, int next[], int prev[], double best,
+            int join[]) {
+        for (int k = 0; k < 4; k++) {
+            boolean aFirst = (k & 1) == 0;//a is a1
+            boolean reversed = (k & 2) != 0;
+            int a1 = aFirst ? a : prev[a];
+            int a2 = aFirst ? next[a] : a;
+            //b is b2 if a1 joins b2, and b1 otherwise
+            boolean bSecond = (aFirst != reversed);
+            int b1 = bSecond ? prev[b] : b;
+            int b2 = bSecond ? b : next[b];
+            double cost = -dist.distance(a1, a2) - dist.distance(b1, b2);
+            if (reversed) {
+                cost += dist.distance(a1, b1) + dist.distance(b2, a2);
+            } else {
+                cost += dist.distance(a1, b2) + dist.distance(b1, a2);
+            }
+            if (cost < best) {
+                best = cost;
+                join[0] = a1;
+                join[1] = a2;
+                join[2] = b1;
+                join[3] = b2;
+                join[4] = reversed ? 1 : 0;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Square windows of about windowSize cities along each cut
+     *
+     * @param shift offset of windows along the cut, in units of the window
+     * @return
+     */
+    private List<Window> windows(double shift) {
+        List<Window> list = Collections.synchronizedList(new ArrayList<>());
+        for (Cut cut : cuts) {
+            int count = cut.hi() - cut.lo();
+            double w = cut.maxX() - cut.minX();
+            double h = cut.maxY() - cut.minY();
+            double along = cut.alongX() ? h : w;//length of the cut
+            double across = cut.alongX() ? w : h;
+            double side = Math.sqrt(windowSize * w * h / count);
+            if (!(side > 0.)) {//cities on a line
+                side = Math.max(along, across) * windowSize / count;
+            }
+            side = Math.min(side, Math.max(along, across));
+            if (!(side > 0.)) {
+                continue;
+            }
+            double start = (cut.alongX() ? cut.minY() : cut.minX())
+                    - shift * side;
+            int numWindow = (int) Math.ceil(along / side + shift) + 1;
+            int size[] = new int[numWindow];
+            for (int i = cut.lo(); i < cut.hi(); i++) {
+                int j = windowOf(cut, idx[i], side, start, numWindow);
+                if (j >= 0) {
+                    size[j]++;
+                }
+            }
+            int member[][] = new int[numWindow][];
+            for (int j = 0; j < numWindow; j++) {
+                member[j] = new int[size[j]];
+                size[j] = 0;
+            }
+            for (int i = cut.lo(); i < cut.hi(); i++) {
+                int j = windowOf(cut, idx[i], side, start, numWindow);
+                if (j >= 0) {
+                    member[j][size[j]++] = idx[i];
+                }
+            }
+            double u0 = cut.value() - side / 2;
+            for (int j = 0; j < numWindow; j++) {
+                if (size[j] < 8) {
+                    continue;
+                }
+                double v0 = start + j * side;
+                list.add(cut.alongX()
+                        ? new Window(member[j], u0, v0, u0 + side, v0 + side)
+                        : new Window(member[j], v0, u0, v0 + side, u0 + side));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Window of city c along the cut
+     *
+     * @return index of the window, or -1 if c is not within side/2 of the
+     * cut
+     */
+    private int windowOf(Cut cut, int c, double side, double start,
+            int numWindow) {
+        double u = cut.alongX() ? x[c] : y[c];
+        double v = cut.alongX() ? y[c] : x[c];
+        if (Math.abs(u - cut.value()) >= side / 2) {
+            return -1;
+        }
+        return Math.min(numWindow - 1, Math.max(0, (int) ((v - start) / side)));
+    }
+
+    /**
+     * Grouping windows into batches of disjoint windows
+     */
+    private List<List<Window>> batches(List<Window> windows) {
+        List<List<Window>> batches
+                = Collections.synchronizedList(new ArrayList<>());
+        for (Window w : windows) {
+            List<Window> target = null;
+            for (List<Window> b : batches) {
+                if (b.stream().noneMatch(w::overlaps)) {
+                    target = b;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = Collections.synchronizedList(new ArrayList<>());
+                batches.add(target);
+            }
+            target.add(w);
+        }
+        return batches;
+    }
+
+    /**
+     * Annealing a batch of disjoint windows in parallel and joining the
+     * improved paths into the circuit
+     */
+    private void repair(List<Window> batch, ForkJoinPool pool,
+            Xoroshiro128 master, long budget) throws InterruptedException,
+            ExecutionException {
+        int pos[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            pos[order[i]] = i;
+        }
+        int mark[] = new int[n];//window of each city, 0 for none
+        List<Callable<Change>> tasks
+                = Collections.synchronizedList(new ArrayList<>());
+        for (int k = 0; k < batch.size(); k++) {
+            int id = k + 1;
+            Window w = batch.get(k);
+            for (int c : w.city()) {
+                mark[c] = id;
+            }
+            Xoroshiro128 random = master.split();
+            tasks.add(() -> annealWindow(w.city(), id, pos, mark, random,
+                    budget));
+        }
+        //two neighbours of each city
+        int adj[] = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            adj[2 * order[i]] = order[(i + 1) % n];
+            adj[2 * order[i] + 1] = order[(i + n - 1) % n];
+        }
+        //windows keeping the pairs of ends never break the circuit; the
+        //others are applied one by one and undone if they do
+        List<Change> changes = Collections.synchronizedList(new ArrayList<>());
+        for (Future<Change> f : pool.invokeAll(tasks)) {
+            if (f.get() != null) {
+                changes.add(f.get());
+            }
+        }
+        boolean changed = false;
+        for (Change r : changes) {
+            if (r.paired()) {
+                apply(adj, r.adj());
+                changed = true;
+            }
+        }
+        for (Change r : changes) {
+            if (!r.paired()) {
+                int old[] = apply(adj, r.adj());
+                if (isCircuit(adj)) {
+                    changed = true;
+                } else {
+                    apply(adj, old);
+                }
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        int newOrder[] = new int[n];
+        int c = order[0];
+        int p = adj[2 * c + 1];
+        for (int i = 0; i < n; i++) {
+            newOrder[i] = c;
+            int nc = (adj[2 * c] == p) ? adj[2 * c + 1] : adj[2 * c];
+            p = c;
+            c = nc;
+        }
+        order = newOrder;
+    }
+
+    /**
+     * Setting new neighbours, returning the old ones
+     */
+    private static int[] apply(int adj[], int change[]) {
+        int old[] = change.clone();
+        for (int i = 0; i < change.length; i += 3) {
+            int c = change[i];
+            old[i + 1] = adj[2 * c];
+            old[i + 2] = adj[2 * c + 1];
+            adj[2 * c] = change[i + 1];
+            adj[2 * c + 1] = change[i + 2];
+        }
+        return old;
+    }
+
+    /**
+     * Whether the neighbours form one circuit through all cities
+     */
+    private boolean isCircuit(int adj[]) {
+        int c = 0;
+        int p = adj[1];
+        for (int i = 1; i <= n; i++) {
+            int nc = (adj[2 * c] == p) ? adj[2 * c + 1] : adj[2 * c];
+            p = c;
+            c = nc;
+            if (c == 0) {
+                return i == n;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Annealing one window
+     *
+     * The cities form paths of the circuit. The window is closed into a
+     * circuit by fixed edges, each joining the end of a path to the start of
+     * the next, which stand for the parts of the circuit outside. If each
+     * new path joins the same ends as an old one, windows changed at the
+     * same time still give one circuit.
+     *
+     * @return new neighbours, or null if not improved
+     */
+    private Change annealWindow(int city[], int id, int pos[], int mark[],
+            Xoroshiro128 random, long budget) {
+        int m = city.length;
+        //starts of paths in the order of the circuit
+        int starts[] = Arrays.stream(city)
+                .filter(c -> mark[order[(pos[c] + n - 1) % n]] != id)
+                .boxed().sorted((a, b) -> Integer.compare(pos[a], pos[b]))
+                .mapToInt(Integer::intValue).toArray();
+        if (starts.length == 0) {//the whole circuit
+            return null;
+        }
+        int sub[] = new int[m];//cities along the paths
+        int numPath = starts.length;
+        int pathEnd[] = new int[numPath];
+        int k = 0;
+        for (int s = 0; s < numPath; s++) {
+            int i = pos[starts[s]];
+            while (mark[order[i]] == id) {
+                sub[k++] = order[i];
+                i = (i + 1 == n) ? 0 : i + 1;
+            }
+            pathEnd[s] = k - 1;
+        }
+        int fixed[] = new int[2 * m];//partner after, partner before
+        Arrays.fill(fixed, -1);
+        double sx[] = new double[m];
+        double sy[] = new double[m];
+        for (int i = 0; i < m; i++) {
+            sx[i] = x[sub[i]];
+            sy[i] = y[sub[i]];
+        }
+        for (int s = 0; s < numPath; s++) {
+            int e = pathEnd[s];
+            int t = (s + 1 < numPath) ? pathEnd[s] + 1 : 0;
+            fixed[2 * e] = t;
+            fixed[2 * t + 1] = e;
+        }
+        Simulation sim = new Simulation(
+                new Instance(sx, sy, instance.getMetric()), random, budget,
+                d -> new FixedEdgeDistance(d, fixed, bonus(d, m)));
+        sim.setProposal(Simulation.Proposal.NEIGHBOUR);
+        double before = sim.getPathLength();
+        windowSchedule.run(sim);
+        Tour tour = sim.getTour();
+        if (!(tour.getPathLength() < before)) {
+            return null;
+        }
+        boolean paired = true;
+        for (int s = 0; s < numPath && paired; s++) {
+            int t = (s > 0) ? pathEnd[s - 1] + 1 : 0;
+            paired = (pathEndFrom(tour, t, fixed) == pathEnd[s]);
+        }
+        int result[] = new int[3 * m];
+        for (int i = 0; i < m; i++) {
+            int nb[] = {tour.next(i), tour.prev(i)};
+            int fa = fixed[2 * i];
+            int fb = fixed[2 * i + 1];
+            //fixed edges must have been kept
+            if ((fa >= 0 && nb[0] != fa && nb[1] != fa)
+                    || (fb >= 0 && nb[0] != fb && nb[1] != fb)) {
+                return null;
+            }
+            int g = sub[i];
+            result[3 * i] = g;
+            for (int j = 0; j < 2; j++) {
+                int h;
+                if (nb[j] == fa) {
+                    h = order[(pos[g] + 1) % n];
+                } else if (nb[j] == fb) {
+                    h = order[(pos[g] + n - 1) % n];
+                } else {
+                    h = sub[nb[j]];
+                }
+                result[3 * i + 1 + j] = h;
+            }
+        }
+        return new Change(result, paired);
+    }
+
+    /**
+     * Bonus of fixed edges, larger than any change of length by a move
+     *
+     * No distance in the window exceeds twice the largest one from the
+     * first city. The distance of the window is used, so that the bonus is
+     * in the unit of the metric.
+     *
+     * @param dist distance between cities of the window
+     * @param m the number of cities in the window
+     * @return
+     */
+    private static double bonus(DistanceProvider dist, int m) {
+        double r = 0.;
+        for (int i = 1; i < m; i++) {
+            r = Math.max(r, dist.distance(0, i));
+        }
+        return 20. * r + 1.;
+    }
+
+    /**
+     * The end of the path from t, away from its fixed edge
+     *
+     * @return the last city before a fixed edge, or -1 if a fixed edge is
+     * entered from the wrong side
+     */
+    private static int pathEndFrom(Tour tour, int t, int fixed[]) {
+        int prv = fixed[2 * t + 1];
+        int cur = t;
+        for (int i = 0; i < tour.numCity(); i++) {
+            int nxt = (tour.next(cur) == prv) ? tour.prev(cur) : tour.next(cur);
+            if (nxt == fixed[2 * cur]) {
+                return cur;
+            }
+            if (nxt == fixed[2 * cur + 1]) {
+                return -1;
+            }
+            prv = cur;
+            cur = nxt;
+        }
+        return -1;
+    }
+
+    private double evalLength() {
+        double sum = 0.;
+        for (int i = 0; i < n; i++) {
+            sum += dist.distance(order[i], order[(i + 1) % n]);
+        }
+        return sum;
+    }
+
+    private static double min(double v[]) {
+        return Arrays.stream(v).min().orElse(0.);
+    }
+
+    private static double max(double v[]) {
+        return Arrays.stream(v).max().orElse(0.);
+    }
+
+    /**
+     * Setting the size of regions and repair windows
+     *
+     * @param regionSize maximum number of cities per region
+     * @param windowSize typical number of cities per repair window
+     * @param numRepair passes of boundary repair
+     */
+    public void setSizes(int regionSize, int windowSize, int numRepair) {
+        this.regionSize = regionSize;
+        this.windowSize = windowSize;
+        this.numRepair = numRepair;
+        idx = null;
+        regions.clear();
+        cuts.clear();
+    }
+
+    /**
+     * @param numThread threads annealing regions and windows
+     * @param memoryBudget total memory for distances (bytes), shared by
+     * threads
+     */
+    public void setResources(int numThread, long memoryBudget) {
+        this.numThread = numThread;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Setting the schedules
+     *
+     * @param regionSchedule used for each region
+     * @param windowSchedule used for each repair window, starting from a
+     * good path
+     */
+    public void setSchedules(AdaptiveSchedule regionSchedule,
+            AdaptiveSchedule windowSchedule) {
+        this.regionSchedule = regionSchedule;
+        this.windowSchedule = windowSchedule;
+    }
+
+    public int numRegion() {
+        partition();
+        return regions.size();
+    }
+
+    public int[] getOrder() {
+        return order.clone();
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * @param args instance file, in the format of InstanceReader
+     * @throws java.io.IOException
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public static void main(String[] args) throws java.io.IOException,
+            InterruptedException, ExecutionException {
+        String filename = (args.length > 0) ? args[0] : "points.txt";
+        PartitionSolver solver = new PartitionSolver(InstanceReader.read(filename));
+        long t = System.nanoTime();
+        solver.solve(48L);
+        System.out.println(solver.numRegion() + " regions: " + solver.getLength()
+                + " in " + (System.nanoTime() - t) / 1e9 + " s");
+    }
+}
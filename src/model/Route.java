@@ -4,7 +4,7 @@ import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * One circuit
@@ -18,7 +18,13 @@ public class Route {
     //area of nodes
     private Point min;
     private Point max;
-    private final Random random;
+    private final RandomGenerator random;
+    //cities of the initial path, shared by the routes derived from it
+    private final Point point[];
+    private final double x[];
+    private final double y[];
+    private final DistanceProvider dist;//chosen once for the metric
+    private final int city[];//city at each position of the path
 
     /**
      *
@@ -26,10 +32,51 @@ public class Route {
      * @param path initial path
      * @param random
      */
-    public Route(List<Point> path, Random random) {
+    public Route(List<Point> path, RandomGenerator random) {
+        this(path, random, Metric.EUCLIDEAN);
+    }
+
+    /**
+     * @param path initial path
+     * @param random
+     * @param metric any metric except EXPLICIT
+     */
+    public Route(List<Point> path, RandomGenerator random, Metric metric) {
         this.path = path;
         evalArea();
         this.random = random;
+        int n = path.size();
+        point = path.toArray(new Point[n]);
+        x = new double[n];
+        y = new double[n];
+        city = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = point[i].x;
+            y[i] = point[i].y;
+            city[i] = i;
+        }
+        dist = MetricDistance.of(x, y, metric);
+    }
+
+    /**
+     * Route derived from another, sharing its cities and distances
+     */
+    private Route(Route original, List<Point> path, int city[]) {
+        this.path = path;
+        evalArea();
+        random = original.random;
+        point = original.point;
+        x = original.x;
+        y = original.y;
+        dist = original.dist;
+        this.city = city;
+    }
+
+    /**
+     * Distance between the cities at two positions of the path
+     */
+    private double distance(int i, int j) {
+        return dist.distance(city[i], city[j]);
     }
 
     /**
@@ -55,9 +102,7 @@ public class Route {
         int n = path.size();
         pathLength = 0.;
         for (int i = 0; i < n; i++) {
-            int j = (i + 1) % n;
-            Point p = path.get(i);
-            pathLength += p.distance(path.get(j));
+            pathLength += distance(i, (i + 1) % n);
         }
         return pathLength;
     }
@@ -89,27 +134,53 @@ public class Route {
      * @return
      */
     private Route nextRouteSub(int p, int q) {
-        List<Point> newPath = Collections.synchronizedList(new ArrayList<>());
+        int n = path.size();
+        List<Point> newPath
+                = Collections.synchronizedList(new ArrayList<>(n));
+        int newCity[] = new int[n];
         for (int i = 0; i < p; i++) {
             newPath.add(path.get(i));
+            newCity[i] = city[i];
         }
         for (int i = q; i >= p; i--) {
             newPath.add(path.get(i));
+            newCity[p + q - i] = city[i];
         }
-        for (int i = q + 1; i < path.size(); i++) {
+        for (int i = q + 1; i < n; i++) {
             newPath.add(path.get(i));
+            newCity[i] = city[i];
         }
 
-        Route np = new Route(newPath, random);
+        Route np = new Route(this, newPath, newCity);
         int qq = (q + 1) % path.size();
         np.pathLength = this.pathLength
-                - (path.get(p - 1).distance(path.get(p))
-                + path.get(q).distance(path.get(qq)))
-                + (newPath.get(p - 1).distance(newPath.get(p))
-                + newPath.get(q).distance(newPath.get(qq)));
+                - (distance(p - 1, p) + distance(q, qq))
+                + (np.distance(p - 1, p) + np.distance(q, qq));
         return np;
     }
 
+    /**
+     * Local search from this path
+     *
+     * Greedy 2-opt and Or-opt descent over the nearest neighbours of each
+     * city.
+     *
+     * @return new path at a local minimum
+     */
+    public Route quench() {
+        Tour tour = Tour.create(x, y, dist);
+        tour.setOrder(city);
+        new LocalSearch(tour,
+                new NeighbourList(x, y, Simulation.NUM_NEIGHBOUR)).run();
+        int order[] = tour.order();
+        List<Point> newPath = Collections.synchronizedList(new ArrayList<>());
+        for (int c : order) {
+            newPath.add(point[c]);
+        }
+        Route np = new Route(this, newPath, order);
+        np.evalPathLength();
+        return np;
+    }
 
     public double getPathLength() {
         return pathLength;
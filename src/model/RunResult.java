@@ -0,0 +1,13 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Record for the outcome of one annealing run
+ *
+ * @author tadaki
+ */
+public record RunResult(long seed, double length, int[] order,
+        List<Result> trace, boolean completed) {
+
+}
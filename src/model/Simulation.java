@@ -6,11 +6,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+import java.util.random.RandomGenerator;
 
 /**
  * TSPのsimulated annealing
@@ -19,10 +20,39 @@ import java.util.Random;
  */
 public class Simulation {
 
-    private Route path;//current path
-    private final Route initialPath;
+    //the number of neighbours per city for candidate moves
+    public static final int NUM_NEIGHBOUR = 8;
+
+    /**
+     * How candidates for 2-opt moves are drawn
+     */
+    public enum Proposal {
+        UNIFORM, //two cities at random
+        NEIGHBOUR//a city and one of its neighbours
+    }
+
+    private Tour tour;//current path
+    private final Instance instance;
+    private final NeighbourList neighbours;
+    private final int initialOrder[];//start circuit, null for the input order
+    private Proposal proposal = Proposal.UNIFORM;
+    private MoveSet moves = null;//null for 2-opt moves only
     private double temperature;//temperature
-    private final Random random;
+    private final Acceptance acceptance = new Acceptance();
+    private RandomGenerator random;//not shared between threads
+    private int stage = 0;//the number of finished stages in anneal()
+    private int stageStep = 0;//Monte Carlo steps done in the current stage
+    private Checkpointer checkpointer = null;
+    private TraceSink trace = null;//receives a record after each Monte Carlo step
+    //counters for the current stage
+    private long numAccepted = 0;
+    private long numRejected = 0;
+    private long numUphill = 0;
+    private long stageStart = System.nanoTime();
+    private double bestLength;
+    private int candA, candB;//candidate of 2-opt move
+    private final List<StageListener> listeners
+            = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Reading file for initializing path
@@ -31,52 +61,149 @@ public class Simulation {
      * @param random
      * @throws IOException
      */
-    public Simulation(String filename, Random random) throws IOException {
-        List<Point> list = Collections.synchronizedList(new ArrayList<>());
+    public Simulation(String filename, RandomGenerator random) throws IOException {
+        this(InstanceReader.read(filename), random);
+    }
+
+    public Simulation(String lines[], RandomGenerator random) throws NumberFormatException {
+        this(InstanceReader.parse(lines), random);
+    }
+
+    /**
+     * Initializing path by the list of points
+     *
+     * @param list
+     * @param random
+     */
+    public Simulation(List<Point> list, RandomGenerator random) {
+        this(Instance.fromPoints(list), random);
+    }
+
+    /**
+     * Initializing path by the order of cities in the instance
+     *
+     * @param instance
+     * @param random
+     */
+    public Simulation(Instance instance, RandomGenerator random) {
+        this(instance, random, DistanceProvider.DEFAULT_MEMORY_BUDGET,
+                UnaryOperator.identity(), null);
+    }
+
+    /**
+     * Initializing path by a construction heuristic
+     *
+     * The start temperature is set by the length of the circuit built, far
+     * below that for the input order.
+     *
+     * @param instance
+     * @param random
+     * @param builder constructing the initial circuit, null for the input
+     * order
+     */
+    public Simulation(Instance instance, RandomGenerator random,
+            TourBuilder builder) {
+        this(instance, random, DistanceProvider.DEFAULT_MEMORY_BUDGET,
+                UnaryOperator.identity(), builder);
+    }
+
+    /**
+     * Initializing path with a given memory budget for distances
+     *
+     * @param instance
+     * @param random
+     * @param budget memory budget for distances (bytes)
+     * @param wrapper applied to the selected distance provider
+     */
+    Simulation(Instance instance, RandomGenerator random, long budget,
+            UnaryOperator<DistanceProvider> wrapper) {
+        this(instance, random, budget, wrapper, null);
+    }
+
+    /**
+     * Initializing path with a given memory budget and a construction
+     * heuristic
+     *
+     * @param instance
+     * @param random
+     * @param budget memory budget for distances (bytes)
+     * @param wrapper applied to the selected distance provider
+     * @param builder constructing the initial circuit, null for the input
+     * order
+     */
+    Simulation(Instance instance, RandomGenerator random, long budget,
+            UnaryOperator<DistanceProvider> wrapper, TourBuilder builder) {
         this.random = random;
-        try ( BufferedReader in = openReader(filename)) {
-            String line;
-            while ((line = in.readLine()) != null) {
-                String s[] = line.split("\\s+");
-                if (s.length > 1) {
-                    try {
-                        int x = Integer.parseInt(s[0]);
-                        int y = Integer.parseInt(s[1]);
-                        list.add(new Point(x, y));
-                    } catch (NumberFormatException e) {
-                    }
-                }
-            }
+        this.instance = instance;
+        double x[] = instance.getX();
+        double y[] = instance.getY();
+        neighbours = (instance.getWeights() == null)
+                ? new NeighbourList(x, y, NUM_NEIGHBOUR)
+                : new NeighbourList(instance.getWeights(), x.length, NUM_NEIGHBOUR);
+        DistanceProvider dist = wrapper.apply(
+                DistanceProvider.select(instance, neighbours, budget));
+        tour = Tour.create(x, y, dist);
+        initialOrder = (builder == null) ? null
+                : builder.build(instance, neighbours, dist);
+        if (initialOrder != null) {
+            tour.setOrder(initialOrder);
         }
-        path = new Route(list, random);
-        initialPath = new Route(list, random);
-        path.evalPathLength();
-        //Setting high temperature
-        temperature = list.size() * Math.max(path.getMax().x - path.getMin().x,
-                path.getMax().y - path.getMin().y);
+        bestLength = tour.getPathLength();
+        setTemperature(initialTemperature());
     }
 
-    public Simulation(String lines[], Random random) throws NumberFormatException {
-        List<Point> list = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Replica of a simulation for use in another thread
+     *
+     * Coordinates, neighbour lists, distances and the initial circuit are
+     * shared with the original. The path is in the initial order at the
+     * initial temperature, and the proposal mode is copied. Moves are not
+     * copied.
+     *
+     * @param original
+     * @param random independent generator, e.g. split from that of the
+     * original
+     */
+    public Simulation(Simulation original, RandomGenerator random) {
         this.random = random;
-        for (String line : lines) {
-            String s[] = line.split("\\s+");
-            if (s.length > 1) {
-                try {
-                    int x = Integer.parseInt(s[0]);
-                    int y = Integer.parseInt(s[1]);
-                    list.add(new Point(x, y));
-                } catch (NumberFormatException e) {
-                    throw e;
-                }
-            }
+        instance = original.instance;
+        neighbours = original.neighbours;
+        proposal = original.proposal;
+        initialOrder = original.initialOrder;
+        tour = original.tour.share();
+        if (initialOrder != null) {
+            tour.setOrder(initialOrder);
+        }
+        bestLength = tour.getPathLength();
+        setTemperature(initialTemperature());
+    }
+
+    /**
+     * Setting high temperature
+     *
+     * Far above the scale of any move for the input order. For a circuit
+     * built by a heuristic, the mean length of its edges, so that the
+     * circuit is rearranged locally rather than melted. AdaptiveSchedule
+     * calibrates its own from sampled moves.
+     *
+     * @return
+     */
+    private double initialTemperature() {
+        if (initialOrder == null) {
+            return instance.numCity() * instance.extent();
+        }
+        return tour.getPathLength() / tour.numCity();
+    }
+
+    /**
+     * Returning to the initial circuit
+     */
+    private void resetTour() {
+        if (initialOrder == null) {
+            tour.reset();
+        } else {
+            tour.setOrder(initialOrder);
         }
-        path = new Route(list, random);
-        initialPath = new Route(list, random);
-        path.evalPathLength();
-        //Setting high temperature
-        temperature = list.size() * Math.max(path.getMax().x - path.getMin().x,
-                path.getMax().y - path.getMin().y);
     }
 
     /**
@@ -85,12 +212,12 @@ public class Simulation {
      * @return
      */
     public double oneMonteCarloStep() {
-        int n = path.numCity();
+        int n = tour.numCity();
         //trials for changing path
         for (int i = 0; i < n; i++) {
             oneFlip();
         }
-        return path.getPathLength();
+        return tour.getPathLength();
     }
 
     /**
@@ -99,22 +226,243 @@ public class Simulation {
      * @return true if changed
      */
     protected boolean oneFlip() {
-        Route cand = path.nextRoute();//Condidate for new path
-        double d = cand.getPathLength() - path.getPathLength();
+        if (moves != null) {
+            return oneMove();
+        }
+        double d = proposeTwoOpt();
+        if (Double.isNaN(d)) {//no valid candidate
+            numRejected++;
+            return false;
+        }
+        int a = candA;
+        int b = candB;
         if (d < 0.) {//the new path is shorter than the current
-            path = cand;
-            path.evalPathLength();
+            tour.twoOpt(a, b, d);
+            acceptDownhill();
             return true;
         }
         //the new path is longer than the current
-        if (random.nextDouble() < Math.exp(-d / temperature)) {
-            path = cand;
-            path.evalPathLength();
+        if (acceptance.accept(d, random.nextDouble())) {
+            tour.twoOpt(a, b, d);
+            numAccepted++;
+            if (d > 0.) {
+                numUphill++;
+            }
+            return true;
+        }
+        numRejected++;
+        return false;
+    }
+
+    /**
+     * Candidate for new path: 2-opt move reconnecting candA and candB
+     *
+     * @return change of path length, NaN for fewer than two cities
+     */
+    private double proposeTwoOpt() {
+        int n = tour.numCity();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        int a = random.nextInt(n);
+        int b;
+        if (proposal == Proposal.NEIGHBOUR) {
+            //new edge joins a and its neighbour
+            b = neighbours.get(a, random.nextInt(neighbours.getK()));
+            if (random.nextBoolean()) {
+                a = tour.prev(a);
+                b = tour.prev(b);
+            }
+        } else {
+            b = random.nextInt(n);
+            while (a == b) {
+                b = random.nextInt(n);
+            }
+        }
+        candA = a;
+        candB = b;
+        return tour.deltaTwoOpt(a, b);
+    }
+
+    /**
+     * Change of length of a candidate, which is not applied
+     *
+     * @return change of path length, NaN if no valid candidate is found
+     */
+    public double sampleDelta() {
+        if (moves != null) {
+            return moves.pick(random).propose(tour, random);
+        }
+        return proposeTwoOpt();
+    }
+
+    private void acceptDownhill() {
+        numAccepted++;
+        if (tour.getPathLength() < bestLength) {
+            bestLength = tour.getPathLength();
+        }
+    }
+
+    /**
+     * One trial with a move chosen from the move set
+     *
+     * @return true if changed
+     */
+    private boolean oneMove() {
+        Move move = moves.pick(random);
+        double d = move.propose(tour, random);
+        if (Double.isNaN(d)) {//no valid candidate
+            numRejected++;
+            return false;
+        }
+        if (d < 0.) {
+            move.apply(tour);
+            acceptDownhill();
+            return true;
+        }
+        if (acceptance.accept(d, random.nextDouble())) {
+            move.apply(tour);
+            numAccepted++;
+            if (d > 0.) {
+                numUphill++;
+            }
             return true;
         }
+        numRejected++;
         return false;
     }
 
+    /**
+     * Annealing with a geometric schedule
+     *
+     * The schedule continues from the current position, so that a run
+     * stopped or restored from a checkpoint can be resumed.
+     *
+     * @param numStage the number of temperatures
+     * @param stageLength Monte Carlo steps at each temperature
+     * @param coolingRate T->coolingRate*T after each stage
+     * @param stop checked before each Monte Carlo step; the run ends if true
+     * @return path length and temperature at the end of each stage
+     */
+    public List<Result> anneal(int numStage, int stageLength,
+            double coolingRate, BooleanSupplier stop) {
+        List<Result> plist = Collections.synchronizedList(new ArrayList<>());
+        while (stage < numStage) {
+            while (stageStep < stageLength) {
+                if (stop.getAsBoolean()) {
+                    return plist;
+                }
+                oneMonteCarloStep();
+                stageStep++;
+                if (trace != null) {
+                    trace.accept((long) stage * stageLength + stageStep,
+                            getPathLength(), temperature);
+                }
+                if (checkpointer != null) {
+                    checkpointer.offer(this);
+                }
+            }
+            plist.add(new Result(stage, getPathLength(), getTemperature()));
+            cooling(coolingRate);
+            stageStep = 0;
+        }
+        return plist;
+    }
+
+    /**
+     * Snapshot of the current state
+     *
+     * @return
+     */
+    public Checkpoint checkpoint() {
+        return new Checkpoint(stage, stageStep, temperature,
+                tour.getPathLength(), bestLength, proposal,
+                Checkpoint.saveRandom(random), tour.order());
+    }
+
+    /**
+     * Restoring the state from a checkpoint
+     *
+     * The run continues exactly as the original one, provided that the
+     * same instance and move set are used.
+     *
+     * @param cp
+     * @throws IOException if the random number generator cannot be restored
+     * @throws IllegalArgumentException if the checkpoint does not fit
+     */
+    public void restore(Checkpoint cp) throws IOException {
+        RandomGenerator r = cp.restoreRandom();
+        tour.setOrder(cp.order());
+        tour.setPathLength(cp.pathLength());
+        random = r;
+        stage = cp.stage();
+        stageStep = cp.stageStep();
+        setTemperature(cp.temperature());
+        proposal = cp.proposal();
+        bestLength = cp.bestLength();
+        clearCounters();
+    }
+
+    /**
+     * Setting checkpoints taken during anneal()
+     *
+     * @param checkpointer or null for no checkpoints
+     */
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Setting the receiver of a record after each Monte Carlo step in
+     * anneal()
+     *
+     * @param trace null for none
+     */
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    public int getStage() {
+        return stage;
+    }
+
+    /**
+     * Adding a receiver of statistics, emitted at each cooling()
+     *
+     * @param listener
+     */
+    public void addStageListener(StageListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeStageListener(StageListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Statistics of the current stage up to now
+     *
+     * @return
+     */
+    public StageStats stageStats() {
+        long elapsed = System.nanoTime() - stageStart;
+        long trials = numAccepted + numRejected;
+        double rate = (elapsed > 0) ? trials * 1e9 / elapsed : 0.;
+        return new StageStats(stage, temperature, numAccepted, numRejected,
+                numUphill, rate, bestLength, tour.getPathLength(), elapsed);
+    }
+
+    private void clearCounters() {
+        numAccepted = 0;
+        numRejected = 0;
+        numUphill = 0;
+        stageStart = System.nanoTime();
+    }
+
+    public double getBestLength() {
+        return bestLength;
+    }
+
     /**
      * Decreasing temperature T->d*T
      *
@@ -122,38 +470,134 @@ public class Simulation {
      * @return
      */
     public double cooling(double d) {
-        temperature *= d;
+        if (!listeners.isEmpty()) {
+            StageStats stats = stageStats();
+            listeners.forEach(l -> l.stageFinished(stats));
+        }
+        clearCounters();
+        stage++;
+        setTemperature(temperature * d);
         return temperature;
     }
 
     public List<Point> currentPath() {
-        return path.getPath();
+        return tour.getPath();
+    }
+
+    public Tour getTour() {
+        return tour;
+    }
+
+    public NeighbourList getNeighbours() {
+        return neighbours;
+    }
+
+    public Proposal getProposal() {
+        return proposal;
+    }
+
+    public void setProposal(Proposal proposal) {
+        this.proposal = proposal;
+    }
+
+    public MoveSet getMoves() {
+        return moves;
+    }
+
+    /**
+     * Setting moves used in oneFlip()
+     *
+     * @param moves move set, or null for 2-opt moves only
+     */
+    public void setMoves(MoveSet moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * Setting the standard moves with weights
+     *
+     * Candidates are drawn among neighbours if the proposal mode is
+     * NEIGHBOUR.
+     *
+     * @param twoOpt weight of 2-opt moves
+     * @param orOpt weight of Or-opt moves
+     * @param insertion weight of node insertions
+     * @param swap weight of swaps
+     * @param or2h weight of or2h moves
+     */
+    public void setMoveWeights(double twoOpt, double orOpt, double insertion,
+            double swap, double or2h) {
+        NeighbourList nbr = (proposal == Proposal.NEIGHBOUR) ? neighbours : null;
+        moves = new MoveSet()
+                .add(new TwoOptMove(nbr), twoOpt)
+                .add(new OrOptMove(nbr), orOpt)
+                .add(new InsertionMove(nbr), insertion)
+                .add(new SwapMove(nbr), swap)
+                .add(new Or2hMove(nbr), or2h);
     }
 
     public double getPathLength() {
-        return path.getPathLength();
+        return tour.getPathLength();
     }
 
     public String currentPathStr() {
-        return path.toString();
+        return tour.toString();
     }
 
     public Point getMin() {
-        return path.getMin();
+        return instance.getMin();
     }
 
     public Point getMax() {
-        return path.getMax();
+        return instance.getMax();
+    }
+
+    public Instance getInstance() {
+        return instance;
     }
 
     public double getTemperature() {
         return temperature;
     }
 
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+        acceptance.setTemperature(temperature);
+    }
+
+    /**
+     * Finishing by local search
+     *
+     * Greedy 2-opt and Or-opt descent over the neighbour lists, instead of
+     * cold Metropolis sweeps that reject almost every candidate.
+     *
+     * @return path length at the local minimum
+     */
+    public double quench() {
+        quench(() -> false);
+        return tour.getPathLength();
+    }
+
+    /**
+     * Finishing by local search until a local minimum or a stop
+     *
+     * @param stop checked periodically; the search ends if true
+     * @return true if a local minimum was reached
+     */
+    public boolean quench(BooleanSupplier stop) {
+        LocalSearch search = new LocalSearch(tour, neighbours);
+        search.run(stop);
+        bestLength = Math.min(bestLength, tour.getPathLength());
+        return search.isLocalMinimum();
+    }
+
     public void reInitialize() {
-        path = new Route(initialPath.getPath(), random);
-        path.evalPathLength();
-        temperature = Math.max(path.getMax().x, path.getMax().y);
+        stage = 0;
+        stageStep = 0;
+        resetTour();
+        bestLength = tour.getPathLength();
+        clearCounters();
+        setTemperature(initialTemperature());
     }
 
     public static BufferedReader openReader(String filename) throws IOException {
@@ -167,18 +611,15 @@ public class Simulation {
      * @throws java.io.IOException
      */
     public static void main(String[] args) throws IOException {
-        Simulation sim = new Simulation("points.txt", new Random(48L));
-        List<Result> plist = Collections.synchronizedList(new ArrayList<>());
-        for (int i = 0; i < 200; i++) {
-            for (int t = 0; t < 1000; t++) {
-                sim.oneMonteCarloStep();
+        Simulation sim = new Simulation("points.txt", new Xoroshiro128(48L));
+        String filename = Simulation.class.getSimpleName() + ".csv";
+        try ( AsyncTraceWriter trace = new AsyncTraceWriter(filename,
+                AsyncTraceWriter.Format.CSV, 1 << 16, 10)) {
+            sim.setTraceSink(trace);
+            sim.anneal(200, 1000, 0.9, () -> false);
+            if (trace.getNumDropped() > 0) {
+                System.err.println(trace.getNumDropped() + " records dropped");
             }
-            plist.add(new Result(i, sim.getPathLength(), sim.getTemperature()));
-            sim.cooling(0.9);
-        }
-        String filename = Simulation.class.getSimpleName() + ".txt";
-        try ( PrintStream out = new PrintStream(filename)) {
-            plist.forEach(r -> out.println(r.t() + " " + r.d() + " " + r.temp()));
         }
     }
 
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * Receiver of statistics at the end of each temperature stage
+ *
+ * @author tadaki
+ */
+public interface StageListener {
+
+    /**
+     * Called on the annealing thread when the temperature is decreased
+     *
+     * @param stats statistics of the finished stage
+     */
+    public void stageFinished(StageStats stats);
+}
@@ -0,0 +1,31 @@
+package model;
+
+/**
+ * Record of statistics for one temperature stage
+ *
+ * @param stage index of the stage
+ * @param temperature temperature during the stage
+ * @param accepted the number of accepted trials
+ * @param rejected the number of rejected trials
+ * @param uphill the number of accepted trials increasing the length
+ * @param movesPerSecond trials per second
+ * @param best the shortest length found so far
+ * @param current the length at the end of the stage
+ * @param elapsedNanos duration of the stage
+ *
+ * @author tadaki
+ */
+public record StageStats(int stage, double temperature, long accepted,
+        long rejected, long uphill, double movesPerSecond, double best,
+        double current, long elapsedNanos) {
+
+    /**
+     * Ratio of accepted trials
+     *
+     * @return
+     */
+    public double acceptanceRatio() {
+        long n = accepted + rejected;
+        return (n == 0) ? 0. : (double) accepted / n;
+    }
+}
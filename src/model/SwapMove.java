@@ -0,0 +1,70 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Exchanging the positions of two cities
+ *
+ * @author tadaki
+ */
+public class SwapMove extends ExchangeMove {
+
+    private final NeighbourList neighbours;
+    private int u, v;
+
+    /**
+     * @param neighbours v is drawn among neighbours of u, or uniformly if
+     * null
+     */
+    public SwapMove(NeighbourList neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    @Override
+    public double propose(Tour tour, RandomGenerator random) {
+        int n = tour.numCity();
+        if (n < 5) {
+            return Double.NaN;
+        }
+        u = random.nextInt(n);
+        if (neighbours != null) {
+            v = neighbours.get(u, random.nextInt(neighbours.getK()));
+        } else {
+            v = random.nextInt(n);
+        }
+        if (u == v) {
+            return Double.NaN;
+        }
+        if (tour.next(v) == u) {//v comes just before u
+            int w = u;
+            u = v;
+            v = w;
+        }
+        int p = tour.prev(u);
+        int nu = tour.next(u);
+        int pv = tour.prev(v);
+        int nv = tour.next(v);
+        if (nu == v) {//p u v nv -> p v u nv
+            return tour.distance(p, v) + tour.distance(u, nv)
+                    - tour.distance(p, u) - tour.distance(v, nv);
+        }
+        return tour.distance(p, v) + tour.distance(v, nu)
+                + tour.distance(pv, u) + tour.distance(u, nv)
+                - tour.distance(p, u) - tour.distance(u, nu)
+                - tour.distance(pv, v) - tour.distance(v, nv);
+    }
+
+    @Override
+    public void apply(Tour tour) {
+        clearJournal();
+        int p = tour.prev(u);
+        int nu = tour.next(u);
+        int pv = tour.prev(v);
+        int nv = tour.next(v);
+        //p u nu..pv v nv -> p v pv..nu u nv
+        exchange(tour, p, u, v, nv);
+        if (nu != v) {//-> p v nu..pv u nv
+            exchange(tour, v, pv, nu, u);
+        }
+    }
+}
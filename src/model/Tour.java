@@ -0,0 +1,318 @@
+package model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Circuit visiting all cities
+ *
+ * Cities are numbered 0..n-1. Subclasses keep the sequence of cities and
+ * provide next(), prev(), between() and the reversal of a segment; moves are
+ * written in terms of these operations only. create() selects the
+ * representation suited to the number of cities.
+ *
+ * @author tadaki
+ */
+public abstract class Tour {
+
+    //above this number of cities the two-level list is used
+    public static final int TWO_LEVEL_THRESHOLD = 10000;
+    protected final double x[];//x coordinates of cities
+    protected final double y[];//y coordinates of cities
+    protected final int n;//the number of cities
+    protected final DistanceProvider dist;//distance between cities
+    protected double pathLength;//the length of the path
+
+    protected Tour(double x[], double y[], DistanceProvider dist) {
+        this.x = x;
+        this.y = y;
+        this.dist = dist;
+        n = x.length;
+    }
+
+    /**
+     * Circuit visiting cities in the order of coordinates
+     *
+     * Arrays are used for small instances and the two-level doubly-linked
+     * list above TWO_LEVEL_THRESHOLD cities.
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param dist distance between cities
+     * @return new circuit
+     */
+    public static Tour create(double x[], double y[], DistanceProvider dist) {
+        if (x.length > TWO_LEVEL_THRESHOLD) {
+            return new TwoLevelTour(x, y, dist);
+        }
+        return new ArrayTour(x, y, dist);
+    }
+
+    /**
+     * Circuit with the distance strategy selected by the default budget
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @return new circuit
+     */
+    public static Tour create(double x[], double y[]) {
+        return create(x, y, DistanceProvider.select(x, y,
+                DistanceProvider.DEFAULT_MEMORY_BUDGET));
+    }
+
+    /**
+     * Circuit visiting points in the order of the list
+     *
+     * @param path list of points
+     * @return new circuit
+     */
+    public static Tour fromPoints(List<Point> path) {
+        int n = path.size();
+        double x[] = new double[n];
+        double y[] = new double[n];
+        for (int i = 0; i < n; i++) {
+            Point p = path.get(i);
+            x[i] = p.x;
+            y[i] = p.y;
+        }
+        return create(x, y);
+    }
+
+    /**
+     * Circuit in the order of coordinates for use in another thread
+     *
+     * Coordinates are shared with this circuit.
+     *
+     * @return new circuit of the same representation
+     */
+    public abstract Tour share();
+
+    /**
+     * Setting the sequence of cities
+     *
+     * @param order sequence of cities, a permutation of 0..n-1
+     * @throws IllegalArgumentException if order is not a permutation
+     */
+    public void setOrder(int order[]) {
+        if (order.length != n) {
+            throw new IllegalArgumentException("length " + order.length
+                    + " for " + n + " cities");
+        }
+        boolean seen[] = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int c = order[i];
+            if (c < 0 || c >= n || seen[c]) {
+                throw new IllegalArgumentException("not a permutation at " + i);
+            }
+            seen[c] = true;
+        }
+        load(order);
+        evalPathLength();
+    }
+
+    /**
+     * Returning to the order of coordinates
+     */
+    public final void reset() {
+        int order[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        load(order);
+        evalPathLength();
+    }
+
+    /**
+     * Building the representation from a valid permutation
+     *
+     * @param order sequence of cities
+     */
+    abstract void load(int order[]);
+
+    /**
+     * Distance between two cities
+     *
+     * @param a
+     * @param b
+     * @return
+     */
+    public double distance(int a, int b) {
+        return dist.distance(a, b);
+    }
+
+    /**
+     * Evaluate path length
+     *
+     * @return path length
+     */
+    public double evalPathLength() {
+        pathLength = 0.;
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            int nc = next(c);
+            pathLength += distance(c, nc);
+            c = nc;
+        }
+        return pathLength;
+    }
+
+    /**
+     * The next city along the circuit
+     *
+     * @param c
+     * @return
+     */
+    public abstract int next(int c);
+
+    /**
+     * The previous city along the circuit
+     *
+     * @param c
+     * @return
+     */
+    public abstract int prev(int c);
+
+    /**
+     * Whether b lies on the path from a forward to c
+     *
+     * The ends are included.
+     *
+     * @param a
+     * @param b
+     * @param c
+     * @return
+     */
+    public abstract boolean between(int a, int b, int c);
+
+    /**
+     * Change of length by 2-opt move
+     *
+     * The move removes edges (a,next(a)) and (b,next(b)) and adds (a,b) and
+     * (next(a),next(b)).
+     *
+     * @param a
+     * @param b
+     * @return change of path length
+     */
+    public double deltaTwoOpt(int a, int b) {
+        int na = next(a);
+        int nb = next(b);
+        if (a == b || na == b || nb == a) {
+            return 0.;
+        }
+        return dist.exchangeDelta(a, na, b, nb);
+    }
+
+    /**
+     * Apply 2-opt move evaluated by deltaTwoOpt()
+     *
+     * @param a
+     * @param b
+     * @param delta change of path length
+     */
+    public void twoOpt(int a, int b, double delta) {
+        int na = next(a);
+        if (a == b || na == b || next(b) == a) {
+            return;
+        }
+        reverse(na, b);
+        pathLength += delta;
+    }
+
+    /**
+     * Replace edges (a,b) and (c,d) by (a,c) and (b,d)
+     *
+     * b and d must follow a and c in the same direction along the circuit,
+     * either forward or backward. The path length is updated.
+     *
+     * @param a
+     * @param b
+     * @param c
+     * @param d
+     */
+    public void exchange(int a, int b, int c, int d) {
+        if (b == c) {
+            return;
+        }
+        pathLength += dist.exchangeDelta(a, b, c, d);
+        if (next(a) == b) {
+            reverse(b, c);
+        } else {
+            reverse(c, b);
+        }
+    }
+
+    /**
+     * Reverse (flip) the segment from city s to city t along the circuit
+     *
+     * Implementations may reverse the complement instead. Both give the same
+     * circuit.
+     *
+     * @param s first city of the segment
+     * @param t last city of the segment
+     */
+    abstract void reverse(int s, int t);
+
+    /**
+     * Sequence of cities along the circuit
+     *
+     * @return new array of cities
+     */
+    public abstract int[] order();
+
+    public double getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Setting the path length kept incrementally, for restoring a state
+     *
+     * @param pathLength
+     */
+    void setPathLength(double pathLength) {
+        this.pathLength = pathLength;
+    }
+
+    public int numCity() {
+        return n;
+    }
+
+    public double getX(int c) {
+        return x[c];
+    }
+
+    public double getY(int c) {
+        return y[c];
+    }
+
+    public DistanceProvider getDistance() {
+        return dist;
+    }
+
+    /**
+     * Sequence of points along the circuit
+     *
+     * @return new list of points
+     */
+    public List<Point> getPath() {
+        List<Point> list = Collections.synchronizedList(new ArrayList<>());
+        for (int c : order()) {
+            list.add(new Point((int) Math.round(x[c]), (int) Math.round(y[c])));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(pathLength).append(" : [");
+        for (int c : order()) {
+            sb.append("(").append((int) Math.round(x[c])).append(",")
+                    .append((int) Math.round(y[c])).append(")");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
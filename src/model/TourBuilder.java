@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * Construction of an initial circuit
+ *
+ * A good start lets annealing begin at a low temperature, instead of
+ * melting the order of the input file.
+ *
+ * @author tadaki
+ */
+public interface TourBuilder {
+
+    /**
+     * Building a circuit
+     *
+     * @param instance
+     * @param neighbours candidates for edges
+     * @param dist distance between cities
+     * @return sequence of cities, a permutation of 0..n-1
+     */
+    public int[] build(Instance instance, NeighbourList neighbours,
+            DistanceProvider dist);
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Receiver of the trace of a run
+ *
+ * Records are offered by the annealing thread and must not block it.
+ *
+ * @author tadaki
+ */
+public interface TraceSink extends AutoCloseable {
+
+    /**
+     * Offering a record
+     *
+     * @param t the number of Monte Carlo steps done
+     * @param d path length
+     * @param temp temperature
+     */
+    public void accept(long t, double d, double temp);
+
+    public default void accept(Result r) {
+        accept(r.t(), r.d(), r.temp());
+    }
+
+    /**
+     * Flushing and releasing resources; nothing by default
+     *
+     * @throws IOException
+     */
+    @Override
+    public default void close() throws IOException {
+    }
+}
@@ -0,0 +1,326 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reader of TSPLIB instances
+ *
+ * Supported edge weight types are EUC_2D, CEIL_2D, ATT, MAN_2D and GEO with
+ * node coordinates, and EXPLICIT with the formats FULL_MATRIX, UPPER_ROW,
+ * LOWER_ROW, UPPER_DIAG_ROW and LOWER_DIAG_ROW. Coordinates of explicit
+ * instances are taken from DISPLAY_DATA_SECTION if present; otherwise cities
+ * are placed on a circle for drawing.
+ *
+ * @author tadaki
+ */
+public class TsplibReader {
+
+    private final BufferedReader in;
+    private final String name;
+    private int lineNumber = 0;
+
+    private TsplibReader(BufferedReader in, String name) {
+        this.in = in;
+        this.name = name;
+    }
+
+    /**
+     * Reading a TSPLIB file
+     *
+     * @param filename
+     * @return
+     * @throws IOException if the file is malformed or unsupported
+     */
+    public static Instance read(String filename) throws IOException {
+        try ( BufferedReader in = Simulation.openReader(filename)) {
+            return new TsplibReader(in, filename).read();
+        }
+    }
+
+    private Instance read() throws IOException {
+        int n = -1;
+        Metric metric = null;
+        String format = null;
+        String section = null;
+        String line;
+        //specification part
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.endsWith("_SECTION")) {
+                section = line;
+                break;
+            }
+            if (line.equals("EOF")) {
+                break;
+            }
+            int colon = line.indexOf(':');
+            String key = (colon < 0 ? line : line.substring(0, colon)).trim();
+            String value = (colon < 0 ? "" : line.substring(colon + 1)).trim();
+            switch (key) {
+                case "DIMENSION":
+                    try {
+                        n = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw error("bad DIMENSION " + value);
+                    }
+                    break;
+                case "TYPE":
+                    if (!value.equals("TSP")) {
+                        throw new IOException(name + ": unsupported TYPE "
+                                + value);
+                    }
+                    break;
+                case "EDGE_WEIGHT_TYPE":
+                    metric = toMetric(value);
+                    break;
+                case "EDGE_WEIGHT_FORMAT":
+                    format = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (n < 0 || metric == null) {
+            throw new IOException(name + ": DIMENSION or EDGE_WEIGHT_TYPE missing");
+        }
+        boolean explicit = (metric == Metric.EXPLICIT);
+        if (explicit && n > MatrixDistance.MAX_CITY) {
+            throw new IOException(name + ": too many cities for a matrix");
+        }
+        //data part
+        double x[] = new double[n];
+        double y[] = new double[n];
+        boolean hasCoordinates = false;
+        float weights[] = null;
+        while (section != null) {
+            switch (section) {
+                case "NODE_COORD_SECTION":
+                case "DISPLAY_DATA_SECTION":
+                    readNodes(x, y);
+                    hasCoordinates = true;
+                    break;
+                case "EDGE_WEIGHT_SECTION":
+                    if (!explicit) {
+                        throw error("EDGE_WEIGHT_SECTION for " + metric);
+                    }
+                    weights = readWeights(n, format);
+                    break;
+                default:
+                    throw error("unsupported " + section);
+            }
+            section = nextSection();
+        }
+        if (!explicit) {
+            if (!hasCoordinates) {
+                throw new IOException(name + ": no NODE_COORD_SECTION");
+            }
+            return new Instance(x, y, metric);
+        }
+        if (weights == null) {
+            throw new IOException(name + ": no EDGE_WEIGHT_SECTION");
+        }
+        if (!hasCoordinates) {
+            for (int i = 0; i < n; i++) {
+                double theta = 2. * Math.PI * i / n;
+                x[i] = 1000. * Math.cos(theta);
+                y[i] = 1000. * Math.sin(theta);
+            }
+        }
+        return new Instance(x, y, new MatrixDistance(weights));
+    }
+
+    /**
+     * Name of the next section, or null at the end of the file
+     */
+    private String nextSection() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.equals("EOF")) {
+                return null;
+            }
+            return line;
+        }
+        return null;
+    }
+
+    private void readNodes(double x[], double y[]) throws IOException {
+        int n = x.length;
+        boolean seen[] = new boolean[n];
+        int count = 0;
+        String line;
+        while (count < n && (line = in.readLine()) != null) {
+            lineNumber++;
+            String s[] = tokens(line);
+            if (s.length == 0) {
+                continue;
+            }
+            if (s[0].equals("EOF")) {
+                break;
+            }
+            if (s.length < 3) {
+                throw error("malformed node " + line);
+            }
+            try {
+                int id = Integer.parseInt(s[0]) - 1;
+                if (id < 0 || id >= n || seen[id]) {
+                    throw error("bad node number " + s[0]);
+                }
+                x[id] = Double.parseDouble(s[1]);
+                y[id] = Double.parseDouble(s[2]);
+                seen[id] = true;
+                count++;
+            } catch (NumberFormatException e) {
+                throw error("malformed node " + line);
+            }
+        }
+        if (count < n) {
+            throw new IOException(name + ": " + count + " nodes for DIMENSION "
+                    + n);
+        }
+    }
+
+    /**
+     * Reading edge weights into the lower triangle used by MatrixDistance
+     *
+     * Entries of row i are those of columns from first(i) to last(i)-1.
+     */
+    private float[] readWeights(int n, String format) throws IOException {
+        if (format == null) {
+            throw new IOException(name + ": EDGE_WEIGHT_FORMAT missing");
+        }
+        int kind = switch (format) {
+            case "FULL_MATRIX" ->
+                0;
+            case "UPPER_ROW" ->
+                1;
+            case "UPPER_DIAG_ROW" ->
+                2;
+            case "LOWER_ROW" ->
+                3;
+            case "LOWER_DIAG_ROW" ->
+                4;
+            default ->
+                throw new IOException(name
+                        + ": unsupported EDGE_WEIGHT_FORMAT " + format);
+        };
+        float matrix[] = new float[(int) ((long) n * (n - 1) / 2)];
+        int i = 0;
+        int j = first(kind, 0);
+        while (i < n && j >= last(kind, i, n)) {//skipping empty rows
+            i++;
+            j = first(kind, i);
+        }
+        String line;
+        while (i < n && (line = in.readLine()) != null) {
+            lineNumber++;
+            for (String s : tokens(line)) {
+                if (i >= n) {
+                    throw error("too many edge weights");
+                }
+                float w;
+                try {
+                    w = Float.parseFloat(s);
+                } catch (NumberFormatException e) {
+                    throw error("malformed edge weight " + s);
+                }
+                if (i > j) {
+                    matrix[(int) ((long) i * (i - 1) / 2) + j] = w;
+                } else if (i < j) {
+                    matrix[(int) ((long) j * (j - 1) / 2) + i] = w;
+                }
+                j++;
+                while (i < n && j >= last(kind, i, n)) {
+                    i++;
+                    j = (i < n) ? first(kind, i) : 0;
+                }
+            }
+        }
+        if (i < n) {
+            throw new IOException(name + ": too few edge weights");
+        }
+        return matrix;
+    }
+
+    private static int first(int kind, int i) {
+        return switch (kind) {
+            case 1 ->
+                i + 1;
+            case 2 ->
+                i;
+            default ->
+                0;
+        };
+    }
+
+    private static int last(int kind, int i, int n) {
+        return switch (kind) {
+            case 3 ->
+                i;
+            case 4 ->
+                i + 1;
+            default ->
+                n;
+        };
+    }
+
+    private IOException error(String message) {
+        return new IOException(name + ":" + lineNumber + ": " + message);
+    }
+
+    private Metric toMetric(String type) throws IOException {
+        switch (type) {
+            case "EUC_2D":
+                return Metric.EUC_2D;
+            case "CEIL_2D":
+                return Metric.CEIL_2D;
+            case "ATT":
+                return Metric.ATT;
+            case "MAN_2D":
+                return Metric.MAN_2D;
+            case "GEO":
+                return Metric.GEO;
+            case "EXPLICIT":
+                return Metric.EXPLICIT;
+            default:
+                throw new IOException(name + ": unsupported EDGE_WEIGHT_TYPE "
+                        + type);
+        }
+    }
+
+    /**
+     * Splitting by white spaces without regular expressions
+     */
+    private static String[] tokens(String line) {
+        String s[] = new String[4];
+        int k = 0;
+        int i = 0;
+        int len = line.length();
+        while (i < len) {
+            while (i < len && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < len && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                if (k == s.length) {
+                    s = Arrays.copyOf(s, 2 * k);
+                }
+                s[k++] = line.substring(start, i);
+            }
+        }
+        return Arrays.copyOf(s, k);
+    }
+}
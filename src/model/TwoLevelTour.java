@@ -0,0 +1,389 @@
+package model;
+
+/**
+ * Circuit held in a two-level doubly-linked list
+ *
+ * The circuit is cut into about sqrt(n) segments. Cities are linked within
+ * their segment and carry a sequence number increasing along the links; each
+ * segment has a reversal bit and a rank along the circuit of segments.
+ * next(), prev() and between() take O(1), and a reversal takes O(sqrt(n)):
+ * the ends are moved into neighbouring segments until the path consists of
+ * whole segments, whose order is reversed and reversal bits are toggled.
+ *
+ * @author tadaki
+ */
+public class TwoLevelTour extends Tour {
+
+    private final int nxt[];//next city within the segment, in stored order
+    private final int prv[];//previous city within the segment, in stored order
+    private final int parent[];//segment of each city
+    private final int id[];//sequence number within the segment
+    private final int groupSize;//number of cities per segment when built
+    private final int numSegment;//the number of segments
+    private final int first[];//first city of each segment in stored order
+    private final int last[];//last city of each segment in stored order
+    private final int size[];//the number of cities in each segment
+    private final boolean reversed[];//reversal bit of each segment
+    private final int segNext[];//next segment along the circuit
+    private final int segPrev[];//previous segment along the circuit
+    private final int rank[];//position of each segment along the circuit
+    private final int run[];//work area for reversing segments
+    private final int runRank[];
+    private boolean unbalanced;//a segment has grown beyond the limit
+
+    /**
+     * Circuit visiting cities in the order of coordinates
+     *
+     * @param x x coordinates
+     * @param y y coordinates
+     * @param dist distance between cities
+     */
+    public TwoLevelTour(double x[], double y[], DistanceProvider dist) {
+        super(x, y, dist);
+        if (n < 16) {
+            throw new IllegalArgumentException(
+                    "two-level list needs at least 16 cities");
+        }
+        nxt = new int[n];
+        prv = new int[n];
+        parent = new int[n];
+        id = new int[n];
+        groupSize = Math.max(8, (int) Math.sqrt(n));
+        numSegment = (n + groupSize - 1) / groupSize;
+        first = new int[numSegment];
+        last = new int[numSegment];
+        size = new int[numSegment];
+        reversed = new boolean[numSegment];
+        segNext = new int[numSegment];
+        segPrev = new int[numSegment];
+        rank = new int[numSegment];
+        run = new int[numSegment];
+        runRank = new int[numSegment];
+        reset();
+    }
+
+    @Override
+    public Tour share() {
+        return new TwoLevelTour(x, y, dist.share());
+    }
+
+    @Override
+    void load(int order[]) {
+        for (int p = 0; p < numSegment; p++) {
+            int from = p * groupSize;
+            int to = Math.min(n, from + groupSize);
+            for (int i = from; i < to; i++) {
+                int c = order[i];
+                parent[c] = p;
+                id[c] = i - from;
+                nxt[c] = (i + 1 < to) ? order[i + 1] : -1;
+                prv[c] = (i > from) ? order[i - 1] : -1;
+            }
+            first[p] = order[from];
+            last[p] = order[to - 1];
+            size[p] = to - from;
+            reversed[p] = false;
+            segNext[p] = (p + 1) % numSegment;
+            segPrev[p] = (p + numSegment - 1) % numSegment;
+            rank[p] = p;
+        }
+        unbalanced = false;
+    }
+
+    private int head(int p) {
+        return reversed[p] ? last[p] : first[p];
+    }
+
+    private int tail(int p) {
+        return reversed[p] ? first[p] : last[p];
+    }
+
+    /**
+     * Sequence number within the segment, increasing along the circuit
+     */
+    private int seq(int c) {
+        return reversed[parent[c]] ? -id[c] : id[c];
+    }
+
+    @Override
+    public int next(int c) {
+        int p = parent[c];
+        if (reversed[p]) {
+            return (c == first[p]) ? head(segNext[p]) : prv[c];
+        }
+        return (c == last[p]) ? head(segNext[p]) : nxt[c];
+    }
+
+    @Override
+    public int prev(int c) {
+        int p = parent[c];
+        if (reversed[p]) {
+            return (c == last[p]) ? tail(segPrev[p]) : nxt[c];
+        }
+        return (c == first[p]) ? tail(segPrev[p]) : prv[c];
+    }
+
+    /**
+     * Comparison of positions along the circuit from the segment of rank 0
+     */
+    private boolean notAfter(int a, int b) {
+        int ra = rank[parent[a]];
+        int rb = rank[parent[b]];
+        if (ra != rb) {
+            return ra < rb;
+        }
+        return seq(a) <= seq(b);
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        if (notAfter(a, c)) {
+            return notAfter(a, b) && notAfter(b, c);
+        }
+        return notAfter(a, b) || notAfter(b, c);
+    }
+
+    @Override
+    void reverse(int s, int t) {
+        if (s == t || next(t) == s) {
+            return;
+        }
+        int ps = parent[s];
+        int pt = parent[t];
+        if (ps == pt) {
+            if (seq(s) <= seq(t)) {
+                reverseWithin(s, t);
+            } else {//the complement lies within the segment
+                reverseWithin(next(t), prev(s));
+            }
+            return;
+        }
+        int k = rank[pt] - rank[ps];
+        if (k < 0) {
+            k += numSegment;
+        }
+        if (2 * k > numSegment) {//reversing the complement
+            int u = next(t);
+            t = prev(s);
+            s = u;
+            if (parent[s] == parent[t] && seq(s) <= seq(t)) {
+                reverseWithin(s, t);
+                return;
+            }
+        }
+        reverseSegments(s, t);
+        if (unbalanced) {
+            load(order());
+        }
+    }
+
+    /**
+     * Reverse the path from s to t lying in one segment
+     */
+    private void reverseWithin(int s, int t) {
+        int p = parent[s];
+        int u = s;
+        int v = t;
+        if (reversed[p]) {
+            u = t;
+            v = s;
+        }
+        if (u == first[p] && v == last[p]) {
+            reversed[p] = !reversed[p];
+            return;
+        }
+        int a = (u == first[p]) ? -1 : prv[u];
+        int b = (v == last[p]) ? -1 : nxt[v];
+        int sum = id[u] + id[v];
+        int c = u;
+        while (true) {
+            int nc = nxt[c];
+            nxt[c] = prv[c];
+            prv[c] = nc;
+            id[c] = sum - id[c];
+            if (c == v) {
+                break;
+            }
+            c = nc;
+        }
+        if (a < 0) {
+            first[p] = v;
+        } else {
+            nxt[a] = v;
+        }
+        prv[v] = a;
+        if (b < 0) {
+            last[p] = u;
+        } else {
+            prv[b] = u;
+        }
+        nxt[u] = b;
+    }
+
+    /**
+     * Reverse the path from s to t spanning more than one segment
+     */
+    private void reverseSegments(int s, int t) {
+        //making s the head of its segment
+        int p = parent[s];
+        if (s != head(p)) {
+            int before = Math.abs(id[s] - id[head(p)]);
+            if (2 * before <= size[p]) {
+                moveToPrevious(p, s);
+            } else {
+                moveToNext(p, s);
+            }
+        }
+        int ps = parent[s];
+        if (parent[t] == ps && seq(s) <= seq(t)) {
+            reverseWithin(s, t);
+            return;
+        }
+        //making t the tail of its segment, keeping s the head of ps
+        p = parent[t];
+        if (t != tail(p)) {
+            int u = next(t);
+            int after = Math.abs(id[tail(p)] - id[u]) + 1;
+            if (segNext[p] != ps && 2 * after <= size[p]) {
+                moveToNext(p, u);
+            } else {
+                moveToPrevious(p, u);
+            }
+        }
+        int pt = parent[t];
+        if (pt == ps) {
+            reverseWithin(s, t);
+            return;
+        }
+        //reversing the order of segments from ps to pt
+        int k = 0;
+        for (int q = ps;; q = segNext[q]) {
+            run[k] = q;
+            runRank[k] = rank[q];
+            k++;
+            if (q == pt) {
+                break;
+            }
+        }
+        int before = segPrev[ps];
+        int after = segNext[pt];
+        for (int i = 0; i < k; i++) {
+            int q = run[i];
+            reversed[q] = !reversed[q];
+            segNext[q] = (i == 0) ? after : run[i - 1];
+            segPrev[q] = (i == k - 1) ? before : run[i + 1];
+            rank[q] = runRank[k - 1 - i];
+        }
+        segNext[before] = pt;
+        segPrev[after] = ps;
+    }
+
+    /**
+     * Move the cities of segment p before city c to the tail of the previous
+     * segment
+     */
+    private void moveToPrevious(int p, int c) {
+        int q = segPrev[p];
+        int d = head(p);
+        while (d != c) {
+            int nd = reversed[p] ? prv[d] : nxt[d];
+            appendTail(q, d);
+            size[p]--;
+            d = nd;
+        }
+        if (reversed[p]) {
+            last[p] = c;
+            nxt[c] = -1;
+        } else {
+            first[p] = c;
+            prv[c] = -1;
+        }
+    }
+
+    /**
+     * Move the cities of segment p from city c to the head of the next
+     * segment
+     */
+    private void moveToNext(int p, int c) {
+        int q = segNext[p];
+        int newTail = reversed[p] ? nxt[c] : prv[c];
+        int d = tail(p);
+        while (true) {
+            int pd = reversed[p] ? nxt[d] : prv[d];
+            prependHead(q, d);
+            size[p]--;
+            if (d == c) {
+                break;
+            }
+            d = pd;
+        }
+        if (reversed[p]) {
+            first[p] = newTail;
+            prv[newTail] = -1;
+        } else {
+            last[p] = newTail;
+            nxt[newTail] = -1;
+        }
+    }
+
+    private void appendTail(int q, int c) {
+        parent[c] = q;
+        if (reversed[q]) {
+            int f = first[q];
+            prv[f] = c;
+            nxt[c] = f;
+            prv[c] = -1;
+            id[c] = id[f] - 1;
+            first[q] = c;
+        } else {
+            int l = last[q];
+            nxt[l] = c;
+            prv[c] = l;
+            nxt[c] = -1;
+            id[c] = id[l] + 1;
+            last[q] = c;
+        }
+        grow(q);
+    }
+
+    private void prependHead(int q, int c) {
+        parent[c] = q;
+        if (reversed[q]) {
+            int l = last[q];
+            nxt[l] = c;
+            prv[c] = l;
+            nxt[c] = -1;
+            id[c] = id[l] + 1;
+            last[q] = c;
+        } else {
+            int f = first[q];
+            prv[f] = c;
+            nxt[c] = f;
+            prv[c] = -1;
+            id[c] = id[f] - 1;
+            first[q] = c;
+        }
+        grow(q);
+    }
+
+    private void grow(int q) {
+        if (++size[q] > 4 * groupSize) {
+            unbalanced = true;
+        }
+    }
+
+    @Override
+    public int[] order() {
+        int p = 0;
+        while (rank[p] != 0) {
+            p++;
+        }
+        int order[] = new int[n];
+        int c = head(p);
+        for (int i = 0; i < n; i++) {
+            order[i] = c;
+            c = next(c);
+        }
+        return order;
+    }
+}
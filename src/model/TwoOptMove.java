@@ -0,0 +1,51 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Reversal of a segment
+ *
+ * Edges (a,next(a)) and (b,next(b)) are replaced by (a,b) and
+ * (next(a),next(b)).
+ *
+ * @author tadaki
+ */
+public class TwoOptMove extends ExchangeMove {
+
+    private final NeighbourList neighbours;
+    private int a;
+    private int b;
+
+    /**
+     * @param neighbours b is drawn among neighbours of a, or uniformly if
+     * null
+     */
+    public TwoOptMove(NeighbourList neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    @Override
+    public double propose(Tour tour, RandomGenerator random) {
+        int n = tour.numCity();
+        a = random.nextInt(n);
+        if (neighbours != null) {
+            b = neighbours.get(a, random.nextInt(neighbours.getK()));
+            if (random.nextBoolean()) {
+                a = tour.prev(a);
+                b = tour.prev(b);
+            }
+        } else {
+            b = random.nextInt(n);
+        }
+        if (a == b || tour.next(a) == b || tour.next(b) == a) {
+            return Double.NaN;
+        }
+        return tour.deltaTwoOpt(a, b);
+    }
+
+    @Override
+    public void apply(Tour tour) {
+        clearJournal();
+        exchange(tour, a, tour.next(a), b, tour.next(b));
+    }
+}
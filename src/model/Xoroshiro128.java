@@ -0,0 +1,131 @@
+package model;
+
+import java.io.Serializable;
+import java.util.random.RandomGenerator;
+
+/**
+ * xoroshiro128++ random number generator
+ *
+ * A fast generator with 128 bits of state and no synchronization, so each
+ * thread must have its own instance. split() hands out a copy and jumps this
+ * generator ahead by 2^64 steps, so that streams derived from one master seed
+ * are reproducible and do not overlap. The state is serializable for
+ * checkpoints.
+ *
+ * @author tadaki
+ */
+public class Xoroshiro128 implements RandomGenerator, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long JUMP[] = {0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L};
+    private long s0;//state
+    private long s1;
+
+    /**
+     * @param seed expanded to the state by SplitMix64
+     */
+    public Xoroshiro128(long seed) {
+        s0 = mix(seed + GOLDEN);
+        s1 = mix(seed + 2 * GOLDEN);
+        if ((s0 | s1) == 0) {
+            s1 = GOLDEN;
+        }
+    }
+
+    private Xoroshiro128(long s0, long s1) {
+        this.s0 = s0;
+        this.s1 = s1;
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        long a = s0;
+        long b = s1;
+        long result = Long.rotateLeft(a + b, 17) + a;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        s1 = Long.rotateLeft(b, 28);
+        return result;
+    }
+
+    /**
+     * Uniform integer in [0,bound) by multiplication, without division in
+     * most calls
+     *
+     * @param bound
+     * @return
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long m = (nextLong() >>> 32) * bound;
+        long l = m & 0xFFFFFFFFL;
+        if (l < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (l < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                l = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Generator for another replica, thread or island
+     *
+     * The returned generator continues the current stream, and this one
+     * jumps 2^64 steps ahead.
+     *
+     * @return new generator
+     */
+    public Xoroshiro128 split() {
+        Xoroshiro128 child = new Xoroshiro128(s0, s1);
+        long a = 0;
+        long b = 0;
+        for (long jump : JUMP) {
+            for (int bit = 0; bit < 64; bit++) {
+                if ((jump & (1L << bit)) != 0) {
+                    a ^= s0;
+                    b ^= s1;
+                }
+                nextLong();
+            }
+        }
+        s0 = a;
+        s1 = b;
+        return child;
+    }
+
+    /**
+     * Independent generator derived from any generator
+     *
+     * @param master
+     * @return
+     */
+    public static RandomGenerator split(RandomGenerator master) {
+        if (master instanceof Xoroshiro128 x) {
+            return x.split();
+        }
+        if (master instanceof RandomGenerator.SplittableGenerator s) {
+            return s.split();
+        }
+        return new Xoroshiro128(master.nextLong());
+    }
+}
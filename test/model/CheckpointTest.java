@@ -0,0 +1,95 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Writing, reading and resuming from checkpoints
+ *
+ * @author tadaki
+ */
+public class CheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Instance instance(int n) {
+        Random random = new Random(1);
+        double x[] = new double[n];
+        double y[] = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 1000. * random.nextDouble();
+            y[i] = 1000. * random.nextDouble();
+        }
+        return new Instance(x, y);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Simulation sys = new Simulation(instance(100), new Xoroshiro128(1));
+        sys.setProposal(Simulation.Proposal.NEIGHBOUR);
+        sys.anneal(5, 100, 0.9, () -> false);
+        Checkpoint cp = sys.checkpoint();
+        String filename = new File(folder.getRoot(), "cp.bin").getPath();
+        cp.write(filename);
+        Checkpoint read = Checkpoint.read(filename);
+        assertEquals(cp.stage(), read.stage());
+        assertEquals(cp.stageStep(), read.stageStep());
+        assertEquals(cp.temperature(), read.temperature(), 0.);
+        assertEquals(cp.pathLength(), read.pathLength(), 0.);
+        assertEquals(cp.bestLength(), read.bestLength(), 0.);
+        assertEquals(cp.proposal(), read.proposal());
+        assertArrayEquals(cp.randomState(), read.randomState());
+        assertArrayEquals(cp.order(), read.order());
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        Instance instance = instance(200);
+        Simulation sys = new Simulation(instance, new Xoroshiro128(1));
+        sys.anneal(30, 100, 0.9, () -> false);
+        String filename = new File(folder.getRoot(), "cp.bin").getPath();
+        sys.checkpoint().write(filename);
+        sys.anneal(60, 100, 0.9, () -> false);
+
+        //another seed, overwritten by the checkpoint
+        Simulation resumed = new Simulation(instance, new Xoroshiro128(9));
+        resumed.restore(Checkpoint.read(filename));
+        resumed.anneal(60, 100, 0.9, () -> false);
+        assertEquals(sys.getPathLength(), resumed.getPathLength(), 0.);
+        assertEquals(sys.getBestLength(), resumed.getBestLength(), 0.);
+        assertEquals(sys.getTemperature(), resumed.getTemperature(), 0.);
+        assertArrayEquals(sys.getTour().order(), resumed.getTour().order());
+    }
+
+    @Test
+    public void testResumeMidStage() throws IOException {
+        Instance instance = instance(200);
+        Simulation sys = new Simulation(instance, new Xoroshiro128(2));
+        int count[] = {0};
+        //stopped in the middle of a stage
+        sys.anneal(20, 100, 0.9, () -> ++count[0] > 1050);
+        Checkpoint cp = sys.checkpoint();
+        assertEquals(50, cp.stageStep());
+        sys.anneal(20, 100, 0.9, () -> false);
+
+        Simulation resumed = new Simulation(instance, new Xoroshiro128(9));
+        resumed.restore(cp);
+        resumed.anneal(20, 100, 0.9, () -> false);
+        assertEquals(sys.getPathLength(), resumed.getPathLength(), 0.);
+        assertArrayEquals(sys.getTour().order(), resumed.getTour().order());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongInstance() throws IOException {
+        Simulation sys = new Simulation(instance(100), new Xoroshiro128(1));
+        Checkpoint cp = sys.checkpoint();
+        new Simulation(instance(50), new Xoroshiro128(1)).restore(cp);
+    }
+}
@@ -0,0 +1,147 @@
+package model;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Proposing, applying and undoing moves
+ *
+ * A proposed change of length must agree with the applied move, and undo
+ * must restore the circuit and its length. Both representations of the
+ * circuit are tested.
+ *
+ * @author tadaki
+ */
+public class MoveTest {
+
+    private static final int N = 300;
+    private static final int TRIAL = 3000;
+
+    @Test
+    public void testTwoOptArray() {
+        check(TwoOptMove::new, false);
+    }
+
+    @Test
+    public void testTwoOptTwoLevel() {
+        check(TwoOptMove::new, true);
+    }
+
+    @Test
+    public void testOrOptArray() {
+        check(OrOptMove::new, false);
+    }
+
+    @Test
+    public void testOrOptTwoLevel() {
+        check(OrOptMove::new, true);
+    }
+
+    @Test
+    public void testInsertionArray() {
+        check(InsertionMove::new, false);
+    }
+
+    @Test
+    public void testInsertionTwoLevel() {
+        check(InsertionMove::new, true);
+    }
+
+    @Test
+    public void testOr2hArray() {
+        check(Or2hMove::new, false);
+    }
+
+    @Test
+    public void testOr2hTwoLevel() {
+        check(Or2hMove::new, true);
+    }
+
+    @Test
+    public void testSwapArray() {
+        check(SwapMove::new, false);
+    }
+
+    @Test
+    public void testSwapTwoLevel() {
+        check(SwapMove::new, true);
+    }
+
+    private interface MoveFactory {
+
+        Move create(NeighbourList neighbours);
+    }
+
+    private void check(MoveFactory factory, boolean twoLevel) {
+        Random random = new Random(1);
+        double x[] = new double[N];
+        double y[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+        }
+        DistanceProvider dist = new DirectDistance(x, y);
+        Tour tour = twoLevel
+                ? new TwoLevelTour(x, y, dist) : new ArrayTour(x, y, dist);
+        tour.reset();
+        Move move = factory.create(new NeighbourList(x, y, 8));
+        int numApplied = 0;
+        for (int t = 0; t < TRIAL; t++) {
+            double length = tour.getPathLength();
+            int next[] = successors(tour);
+            double d = move.propose(tour, random);
+            if (Double.isNaN(d)) {
+                continue;
+            }
+            move.apply(tour);
+            numApplied++;
+            assertEquals(length + d, tour.getPathLength(), 1e-9);
+            assertEquals(tour.getPathLength(), length(tour), 1e-9);
+            move.undo(tour);
+            assertEquals(length, tour.getPathLength(), 1e-9);
+            assertSameCircuit(next, tour);
+            //keep some moves to vary the circuit
+            if (t % 3 == 0) {
+                if (!Double.isNaN(move.propose(tour, random))) {
+                    move.apply(tour);
+                }
+            }
+        }
+        assertTrue(numApplied > TRIAL / 2);
+    }
+
+    private static int[] successors(Tour tour) {
+        int next[] = new int[tour.numCity()];
+        for (int c = 0; c < next.length; c++) {
+            next[c] = tour.next(c);
+        }
+        return next;
+    }
+
+    /**
+     * Length of the circuit summed along the edges
+     */
+    private static double length(Tour tour) {
+        double length = 0.;
+        for (int c = 0; c < tour.numCity(); c++) {
+            length += tour.distance(c, tour.next(c));
+        }
+        return length;
+    }
+
+    /**
+     * The same circuit in either direction
+     */
+    private static void assertSameCircuit(int next[], Tour tour) {
+        boolean forward = (tour.next(0) == next[0]);
+        for (int c = 0; c < next.length; c++) {
+            if (forward) {
+                assertEquals(next[c], tour.next(c));
+            } else {
+                assertEquals(next[c], tour.prev(c));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Reading instances in the plain, TSPLIB and binary formats
+ *
+ * @author tadaki
+ */
+public class ReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String BURMA14[] = {
+        "NAME: burma14",
+        "TYPE: TSP",
+        "DIMENSION: 14",
+        "EDGE_WEIGHT_TYPE: GEO",
+        "EDGE_WEIGHT_FORMAT: FUNCTION ",
+        "DISPLAY_DATA_TYPE: COORD_DISPLAY",
+        "NODE_COORD_SECTION",
+        "   1  16.47       96.10",
+        "   2  16.47       94.44",
+        "   3  20.09       92.54",
+        "   4  22.39       93.37",
+        "   5  25.23       97.24",
+        "   6  22.00       96.05",
+        "   7  20.47       97.02",
+        "   8  17.20       96.29",
+        "   9  16.30       97.38",
+        "  10  14.05       98.12",
+        "  11  16.53       97.38",
+        "  12  21.52       95.59",
+        "  13  19.41       97.13",
+        "  14  20.09       94.55",
+        "EOF"
+    };
+    //optimal tour of burma14 (TSPLIB, 1-based)
+    private static final int BURMA14_OPT[] = {
+        1, 2, 14, 3, 4, 5, 6, 12, 7, 13, 8, 11, 9, 10
+    };
+
+    private String write(String name, String lines[]) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try ( PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            for (String line : lines) {
+                out.println(line);
+            }
+        }
+        return file.getPath();
+    }
+
+    private static double length(Instance instance, int order[]) {
+        DistanceProvider dist = instance.getWeights() != null
+                ? instance.getWeights()
+                : MetricDistance.of(instance.getX(), instance.getY(),
+                        instance.getMetric());
+        double length = 0.;
+        for (int i = 0; i < order.length; i++) {
+            length += dist.distance(order[i] - 1,
+                    order[(i + 1) % order.length] - 1);
+        }
+        return length;
+    }
+
+    @Test
+    public void testPlain() throws IOException {
+        String filename = write("points.txt", new String[]{
+            "0 0", "3.5\t4", "", "-1e2 2.5E1", "bad line", "7"
+        });
+        Instance instance = InstanceReader.read(filename);
+        assertEquals(3, instance.numCity());
+        assertArrayEquals(new double[]{0., 3.5, -100.},
+                instance.getX(), 0.);
+        assertArrayEquals(new double[]{0., 4., 25.}, instance.getY(), 0.);
+        assertEquals(2, instance.numMalformed());
+        assertArrayEquals(new int[]{5, 6}, instance.getMalformed());
+    }
+
+    @Test
+    public void testGeo() throws IOException {
+        Instance instance = TsplibReader.read(write("burma14.tsp", BURMA14));
+        assertEquals(14, instance.numCity());
+        assertEquals(Metric.GEO, instance.getMetric());
+        assertNull(instance.getWeights());
+        assertEquals(3323., length(instance, BURMA14_OPT), 0.);
+    }
+
+    @Test
+    public void testExplicit() throws IOException {
+        //the same four cities in every explicit format
+        String formats[][] = {
+            {"FULL_MATRIX", "0 1 2 3", "1 0 4 5", "2 4 0 6", "3 5 6 0"},
+            {"UPPER_ROW", "1 2 3", "4 5", "6"},
+            {"LOWER_ROW", "1", "2 4", "3 5 6"},
+            {"UPPER_DIAG_ROW", "0 1 2 3", "0 4 5", "0 6", "0"},
+            {"LOWER_DIAG_ROW", "0", "1 0", "2 4 0", "3 5 6 0"}
+        };
+        double expected[][] = {{0, 1, 2, 3}, {1, 0, 4, 5}, {2, 4, 0, 6},
+        {3, 5, 6, 0}};
+        for (String format[] : formats) {
+            String lines[] = new String[format.length + 6];
+            lines[0] = "NAME: four";
+            lines[1] = "TYPE: TSP";
+            lines[2] = "DIMENSION: 4";
+            lines[3] = "EDGE_WEIGHT_TYPE: EXPLICIT";
+            lines[4] = "EDGE_WEIGHT_FORMAT: " + format[0];
+            lines[5] = "EDGE_WEIGHT_SECTION";
+            System.arraycopy(format, 1, lines, 6, format.length - 1);
+            lines[lines.length - 1] = "EOF";
+            Instance instance = TsplibReader.read(write("four.tsp", lines));
+            assertEquals(Metric.EXPLICIT, instance.getMetric());
+            for (int a = 0; a < 4; a++) {
+                for (int b = 0; b < 4; b++) {
+                    assertEquals(format[0], expected[a][b],
+                            instance.getWeights().distance(a, b), 0.);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        String lines[] = new String[BURMA14.length - 4];
+        System.arraycopy(BURMA14, 0, lines, 0, lines.length - 1);
+        lines[lines.length - 1] = "EOF";
+        TsplibReader.read(write("short.tsp", lines));
+    }
+
+    @Test
+    public void testBinaryInstance() throws IOException {
+        Instance instance = TsplibReader.read(write("burma14.tsp", BURMA14));
+        String filename = new File(folder.getRoot(), "burma14.bin").getPath();
+        BinaryFormat.writeInstance(filename, instance);
+        Instance read = BinaryFormat.readInstance(filename);
+        assertEquals(Metric.GEO, read.getMetric());
+        assertArrayEquals(instance.getX(), read.getX(), 0.);
+        assertArrayEquals(instance.getY(), read.getY(), 0.);
+    }
+
+    @Test
+    public void testBinaryTour() throws IOException {
+        int order[] = new int[100000];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (int) ((37L * i) % order.length);
+        }
+        String filename = new File(folder.getRoot(), "tour.bin").getPath();
+        BinaryFormat.writeTour(filename, order);
+        assertArrayEquals(order, BinaryFormat.readTour(filename));
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryWrongMagic() throws IOException {
+        String filename = new File(folder.getRoot(), "tour.bin").getPath();
+        BinaryFormat.writeTour(filename, new int[]{0, 1, 2});
+        BinaryFormat.readInstance(filename);
+    }
+}
@@ -0,0 +1,150 @@
+package model;
+
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Comparing the two-level doubly-linked list with the array representation
+ *
+ * Both circuits receive the same random 2-opt moves. A circuit may be
+ * traversed in either direction after a move, so the direction of the
+ * two-level list is compared with that of the array at every check.
+ *
+ * @author tadaki
+ */
+public class TwoLevelTourTest {
+
+    private static final int N = 500;
+    private double x[];
+    private double y[];
+    private Tour array;
+    private Tour twoLevel;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(1);
+        x = new double[N];
+        y = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+        }
+        DistanceProvider dist = new DirectDistance(x, y);
+        array = new ArrayTour(x, y, dist);
+        twoLevel = new TwoLevelTour(x, y, dist);
+        int order[] = new int[N];
+        for (int i = 0; i < N; i++) {
+            order[i] = i;
+        }
+        for (int i = N - 1; i > 0; i--) {//shuffle
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        array.setOrder(order);
+        twoLevel.setOrder(order);
+    }
+
+    @Test
+    public void testInitialOrder() {
+        assertSame();
+    }
+
+    @Test
+    public void testTwoOpt() {
+        Random random = new Random(2);
+        for (int t = 0; t < 2000; t++) {
+            int a = random.nextInt(N);
+            int b = random.nextInt(N);
+            double delta = array.deltaTwoOpt(a, b);
+            if (forward()) {
+                assertEquals(delta, twoLevel.deltaTwoOpt(a, b), 1e-12);
+                twoLevel.twoOpt(a, b, delta);
+            } else {//edge (a,next(a)) of the array is (next(a),a) here
+                int na = twoLevel.prev(a);
+                int nb = twoLevel.prev(b);
+                assertEquals(delta, twoLevel.deltaTwoOpt(na, nb), 1e-12);
+                twoLevel.twoOpt(na, nb, delta);
+            }
+            array.twoOpt(a, b, delta);
+            if (t % 100 == 0) {
+                assertSame();
+            }
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testExchange() {
+        Random random = new Random(3);
+        for (int t = 0; t < 2000; t++) {
+            int a = random.nextInt(N);
+            int c = random.nextInt(N);
+            if (a == c) {
+                continue;
+            }
+            //both directions of the array, the same edges in the list
+            boolean along = (t % 2 == 0);
+            int b = along ? array.next(a) : array.prev(a);
+            int d = along ? array.next(c) : array.prev(c);
+            array.exchange(a, b, c, d);
+            twoLevel.exchange(a, b, c, d);
+            if (t % 100 == 0) {
+                assertSame();
+            }
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testShare() {
+        Tour shared = twoLevel.share();
+        shared.setOrder(twoLevel.order());
+        for (int c = 0; c < N; c++) {
+            assertEquals(twoLevel.next(c), shared.next(c));
+        }
+    }
+
+    /**
+     * Whether both circuits are traversed in the same direction
+     */
+    private boolean forward() {
+        return array.next(0) == twoLevel.next(0);
+    }
+
+    /**
+     * Asserting that both representations hold the same circuit
+     */
+    private void assertSame() {
+        boolean forward = forward();
+        for (int c = 0; c < N; c++) {
+            if (forward) {
+                assertEquals(array.next(c), twoLevel.next(c));
+                assertEquals(array.prev(c), twoLevel.prev(c));
+            } else {
+                assertEquals(array.next(c), twoLevel.prev(c));
+                assertEquals(array.prev(c), twoLevel.next(c));
+            }
+        }
+        Random random = new Random(4);
+        for (int t = 0; t < 1000; t++) {
+            int a = random.nextInt(N);
+            int b = random.nextInt(N);
+            int c = random.nextInt(N);
+            if (forward) {
+                assertEquals(array.between(a, b, c),
+                        twoLevel.between(a, b, c));
+            } else {
+                assertEquals(array.between(a, b, c),
+                        twoLevel.between(c, b, a));
+            }
+        }
+        double length = array.getPathLength();
+        assertEquals(length, twoLevel.getPathLength(), 1e-9);
+        assertEquals(length, array.evalPathLength(), 1e-9);
+        assertEquals(length, twoLevel.evalPathLength(), 1e-9);
+    }
+}